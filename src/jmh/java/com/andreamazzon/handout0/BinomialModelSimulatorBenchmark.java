@@ -0,0 +1,54 @@
+package com.andreamazzon.handout0;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures the time needed by BinomialModelSimulator to generate the whole matrix of
+ * realizations, for different numbers of simulated paths, of times and of threads. The time needed to
+ * stream the realizations is measured by BinomialModelStreamingBenchmark.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinomialModelSimulatorBenchmark {
+
+	private final double initialValue = 100;
+	private final double increaseIfUp = 1.5;
+	private final double decreaseIfDown = 0.5;
+	private final int seed = 1897;
+
+	@Param({ "10000", "100000" })
+	private int numberOfSimulations;
+
+	@Param({ "10", "100" })
+	private int lastTime;
+
+	@Param({ "1", "4" })
+	private int numberOfThreads;
+
+	@Benchmark
+	public double[][] generateRealizations() {
+		// a new simulator every time: the realizations are generated only once per object
+		final BinomialModelSimulator simulator = new BinomialModelSimulator(initialValue, increaseIfUp,
+				decreaseIfDown, seed, lastTime, numberOfSimulations);
+		simulator.setNumberOfThreads(numberOfThreads);
+		return simulator.getRealizations();
+	}
+}
@@ -0,0 +1,59 @@
+package com.andreamazzon.handout0;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures the time needed by BinomialModelSimulator to stream the realizations one time
+ * step at a time and compute their average at the last time, for different numbers of simulated paths
+ * and of times. Streaming is always sequential, so there is no parameter for the number of threads.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinomialModelStreamingBenchmark {
+
+	private final double initialValue = 100;
+	private final double increaseIfUp = 1.5;
+	private final double decreaseIfDown = 0.5;
+	private final int seed = 1897;
+
+	@Param({ "10000", "100000" })
+	private int numberOfSimulations;
+
+	@Param({ "10", "100" })
+	private int lastTime;
+
+	@Benchmark
+	public double streamRealizations() {
+		final BinomialModelSimulator simulator = new BinomialModelSimulator(initialValue, increaseIfUp,
+				decreaseIfDown, seed, lastTime, numberOfSimulations);
+		final double[] averageAtLastTime = new double[1];
+		simulator.streamRealizations((realizations, time) -> {
+			if (time == lastTime) {
+				double sum = 0;
+				for (final double realization : realizations) {
+					sum += realization;
+				}
+				averageAtLastTime[0] = sum / realizations.length;
+			}
+		});
+		return averageAtLastTime[0];
+	}
+}
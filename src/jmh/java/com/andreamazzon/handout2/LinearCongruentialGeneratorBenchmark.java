@@ -0,0 +1,67 @@
+package com.andreamazzon.handout2;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class compares the number of pseudo random integers per second produced by
+ * AdjustedLinearCongruentialGenerator when the remainder is computed correcting the overflow and
+ * when it is computed by taking the last 48 bits, as well as by the streaming mode.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinearCongruentialGeneratorBenchmark {
+
+	// the results are given in integers per second, since every invocation produces this number of integers
+	private static final int numberOfPseudoRandomNumbers = 1_000_000;
+
+	private final long seed = 1897;
+
+	@Param({ "OVERFLOWCORRECTION", "BITMASK" })
+	private CongruenceMethods congruenceMethod;
+
+	// used by the streaming mode, which writes in an array given by the user
+	private long[] destination;
+	private AdjustedLinearCongruentialGenerator streamingGenerator;
+
+	@Setup
+	public void setUp() {
+		destination = new long[numberOfPseudoRandomNumbers];
+		streamingGenerator = new AdjustedLinearCongruentialGenerator(seed);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(numberOfPseudoRandomNumbers)
+	public long[] generateSequence() {
+		// a new generator every time: otherwise the sequence would be generated only once
+		return new AdjustedLinearCongruentialGenerator(numberOfPseudoRandomNumbers, seed, congruenceMethod)
+				.getRandomNumberSequence();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(numberOfPseudoRandomNumbers)
+	public long[] fillWithNextIntegers() {
+		// it does not depend on congruenceMethod: the streaming mode always takes the last 48 bits
+		streamingGenerator.getNextIntegers(destination, 0, numberOfPseudoRandomNumbers);
+		return destination;
+	}
+}
@@ -0,0 +1,79 @@
+package com.andreamazzon.handout4;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures the number of simulated points per second used by MonteCarloPi and by
+ * MonteCarloPiFromHypersphere to approximate pi, for different numbers of points and, for the
+ * hypersphere, different dimensions. For the hypersphere, the generation of the points in blocks
+ * is also compared with the one point by point.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MonteCarloPiBenchmark {
+
+	// the results are given in points per second, since every invocation simulates this number of points
+	private static final int numberOfSimulatedPoints = 100_000;
+
+	@Param({ "2", "5", "10", "20" })
+	private int dimension;
+
+	private MonteCarloPi piFromCircle;
+	private MonteCarloPiFromHypersphere piFromHypersphere;
+
+	// used to compare the generation in blocks with the one point by point
+	private SplittableRandom randomGenerator;
+
+	@Setup
+	public void setUp() {
+		// only one computation: the single approximations are what we want to measure
+		piFromCircle = new MonteCarloPi(1, numberOfSimulatedPoints);
+		piFromHypersphere = new MonteCarloPiFromHypersphere(1, numberOfSimulatedPoints, dimension);
+		randomGenerator = new SplittableRandom(1897);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(numberOfSimulatedPoints)
+	public double piMonteCarlo() {
+		return piFromCircle.piMonteCarlo();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(numberOfSimulatedPoints)
+	public double piMonteCarloGeneralDimension() {
+		return piFromHypersphere.piMonteCarloGeneralDimension();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(numberOfSimulatedPoints)
+	public double piMonteCarloGeneralDimensionInBlocks() {
+		return piFromHypersphere.piMonteCarloGeneralDimension(randomGenerator);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(numberOfSimulatedPoints)
+	public double piMonteCarloGeneralDimensionPointByPoint() {
+		return piFromHypersphere.piMonteCarloGeneralDimensionPointByPoint(randomGenerator);
+	}
+}
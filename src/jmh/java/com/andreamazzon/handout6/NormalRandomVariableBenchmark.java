@@ -0,0 +1,106 @@
+package com.andreamazzon.handout6;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures the number of normal realizations per second generated by inversion of the
+ * cumulative distribution function, and the speed of the sample mean computed from them. It also
+ * compares the approximations of the quantile function of Abramowitz and Stegun and of Wichura, the
+ * latter computed point by point and for an array of points, and the quantile function given by the
+ * table of TabulatedQuantileRandomVariable.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NormalRandomVariableBenchmark {
+
+	// the results are given in realizations per second
+	private static final int numberOfRealizations = 100_000;
+
+	private final NormalRandomVariable normal = new NormalRandomVariable(0.0, 1.0);
+
+	private final TabulatedQuantileRandomVariable tabulatedNormal = new TabulatedQuantileRandomVariable(normal);
+
+	private final double[] probabilities = new double[numberOfRealizations];
+	private final double[] quantiles = new double[numberOfRealizations];
+
+	@Setup
+	public void setUp() {
+		SplittableRandom randomGenerator = new SplittableRandom(1897);
+		for (int i = 0; i < numberOfRealizations; i++) {
+			probabilities[i] = randomGenerator.nextDouble();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(numberOfRealizations)
+	public double generate() {
+		double sum = 0;
+		for (int i = 0; i < numberOfRealizations; i++) {
+			sum += normal.generate();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(numberOfRealizations)
+	public double getSampleMean() {
+		return normal.getSampleMean(numberOfRealizations);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(numberOfRealizations)
+	public double quantileAbramowitzStegun() {
+		double sum = 0;
+		for (int i = 0; i < numberOfRealizations; i++) {
+			sum += StandardNormalFunctions.getQuantileAbramowitzStegun(probabilities[i]);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(numberOfRealizations)
+	public double quantileWichura() {
+		double sum = 0;
+		for (int i = 0; i < numberOfRealizations; i++) {
+			sum += StandardNormalFunctions.getQuantile(probabilities[i]);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(numberOfRealizations)
+	public double[] quantileWichuraForArray() {
+		StandardNormalFunctions.getQuantiles(probabilities, quantiles);
+		return quantiles;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(numberOfRealizations)
+	public double quantileFromTable() {
+		double sum = 0;
+		for (int i = 0; i < numberOfRealizations; i++) {
+			sum += tabulatedNormal.getQuantileFunction(probabilities[i]);
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,104 @@
+package com.andreamazzon.handout7.randomvariables;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class compares the number of normal realizations per second generated by inversion of the
+ * cumulative distribution function, by the acceptance-rejection method, by the Ziggurat method and by
+ * the polar method, one at a time or in pairs and filling an array.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NormalRandomVariableBenchmark {
+
+	// the results are given in realizations per second
+	private static final int numberOfRealizations = 100_000;
+
+	private final NormalRandomVariable normal = new NormalRandomVariable(0.0, 1.0);
+
+	private final double[] realizations = new double[numberOfRealizations];
+
+	@Benchmark
+	@OperationsPerInvocation(numberOfRealizations)
+	public double generate() {
+		double sum = 0;
+		for (int i = 0; i < numberOfRealizations; i++) {
+			sum += normal.generate();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(numberOfRealizations)
+	public double generateAR() {
+		double sum = 0;
+		for (int i = 0; i < numberOfRealizations; i++) {
+			sum += normal.generateAR();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(numberOfRealizations)
+	public double generateBivariateNormalAR() {
+		double sum = 0;
+		for (int i = 0; i < numberOfRealizations; i++) {
+			final double[] pair = normal.generateBivariateNormalAR();
+			sum += pair[0] + pair[1];
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(numberOfRealizations)
+	public double generateZiggurat() {
+		double sum = 0;
+		for (int i = 0; i < numberOfRealizations; i++) {
+			sum += normal.generateZiggurat();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(numberOfRealizations)
+	public double[] generateZigguratArray() {
+		normal.generateZiggurat(realizations);
+		return realizations;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(numberOfRealizations)
+	public double generateBivariateNormalPolar() {
+		double sum = 0;
+		for (int i = 0; i < numberOfRealizations; i += 2) {
+			final double[] pair = normal.generateBivariateNormalPolar();
+			sum += pair[0] + pair[1];
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(numberOfRealizations)
+	public double[] generatePolarArray() {
+		normal.generatePolar(realizations);
+		return realizations;
+	}
+}
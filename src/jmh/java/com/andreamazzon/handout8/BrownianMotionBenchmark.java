@@ -0,0 +1,44 @@
+package com.andreamazzon.handout8;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures the time needed to generate the paths of BrownianMotion, for different
+ * numbers of paths and of time steps.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BrownianMotionBenchmark {
+
+	private final double timeStepLength = 0.01;
+
+	@Param({ "1000", "10000" })
+	private int numberOfPaths;
+
+	@Param({ "10", "100" })
+	private int numberOfTimeSteps;
+
+	@Benchmark
+	public RandomVariableFromArray[] getPaths() {
+		// a new object every time: the paths are generated only once per object
+		return new BrownianMotion(timeStepLength, numberOfTimeSteps, numberOfPaths).getPaths();
+	}
+}
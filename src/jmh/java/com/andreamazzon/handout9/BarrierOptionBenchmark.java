@@ -0,0 +1,71 @@
+package com.andreamazzon.handout9;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.finmath.exception.CalculationException;
+import net.finmath.montecarlo.assetderivativevaluation.MonteCarloBlackScholesModel;
+import net.finmath.time.TimeDiscretizationFromArray;
+
+/**
+ * This class measures the time needed by BarrierOption to compute its value, for different numbers
+ * of paths and of time steps. The paths of the underlying are generated once in the set up, so that
+ * only the valuation of the option is measured.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BarrierOptionBenchmark {
+
+	//option parameters
+	private final double lowerBarrier = 80;
+	private final double upperBarrier = Long.MAX_VALUE;
+	private final double maturity = 3.0;
+	private final double strike = 100;
+
+	//model parameters
+	private final double initialValue = 100;
+	private final double riskFreeRate = 0.0;
+	private final double volatility = 0.3;
+
+	@Param({ "10000", "100000" })
+	private int numberOfPaths;
+
+	@Param({ "30", "300" })
+	private int numberOfTimeSteps;
+
+	private BarrierOption option;
+	private MonteCarloBlackScholesModel blackScholesProcess;
+
+	@Setup
+	public void setUp() throws CalculationException {
+		option = new BarrierOption(maturity, strike, lowerBarrier, upperBarrier);
+		blackScholesProcess = new MonteCarloBlackScholesModel(
+				new TimeDiscretizationFromArray(0.0, numberOfTimeSteps, maturity / numberOfTimeSteps),
+				numberOfPaths, initialValue, riskFreeRate, volatility);
+		// the paths are generated lazily: we do it here, so that it is not measured
+		option.getValue(blackScholesProcess);
+	}
+
+	@Benchmark
+	public double getValue() throws CalculationException {
+		return option.getValue(blackScholesProcess);
+	}
+}
@@ -1,6 +1,8 @@
 package com.andreamazzon.handout0;
 
-import com.andreamazzon.session3.encapsulation.lazyinitialization.LinearCongruentialGenerator;
+import java.util.function.Consumer;
+
+import com.andreamazzon.handout2.AdjustedLinearCongruentialGenerator;
 
 /**
  * This class is used in order to simulate some paths of a binomial model: a discrete model for
@@ -10,10 +12,15 @@ import com.andreamazzon.session3.encapsulation.lazyinitialization.LinearCongruen
  * This is done under the risk neutral measure: it can be seen that it must hold
  * p = (1 + r - d)/(u - d),
  * where r is the risk free interest rate. This serves as an example of composition combined to
- * inheritance: the class has an object of type LinearCongruentialGenerator, which is used to
+ * inheritance: the class has an object of type AdjustedLinearCongruentialGenerator, which is used to
  * generate the realizations M(i), and inherits from the abstract class DiscreteStochasticProcessSimulator,
  * where the implementation of methods giving all the realizations of the process together with
  * some statistics are given.
+ * <p>
+ * Note that the realizations of M are generated by AdjustedLinearCongruentialGenerator, whereas
+ * earlier versions of this class used the LinearCongruentialGenerator of session3: the two generators
+ * give different sequences, so the realizations of the process for a given seed are different from the
+ * ones of those versions.
  *
  * @author Andrea Mazzon
  *
@@ -29,7 +36,7 @@ public class BinomialModelSimulator extends DiscreteStochasticProcessSimulator {
 	private double[][] upsAndDowns; // the matrix of realizations of M
 
 	// imported! composition: we use this object to simulate the values of M
-	private LinearCongruentialGenerator randomGenerator;
+	private AdjustedLinearCongruentialGenerator randomGenerator;
 
 	public BinomialModelSimulator(double initialValue, double increaseIfUp, double decreaseIfDown,
 			double interestRate, int seed, int lastTime, int numberOfSimulations) {
@@ -41,7 +48,8 @@ public class BinomialModelSimulator extends DiscreteStochasticProcessSimulator {
 		this.increaseIfUp = increaseIfUp;
 		this.decreaseIfDown = decreaseIfDown;
 		riskNeutralProbabilityUp = (1 + interestRate - decreaseIfDown) / (increaseIfUp - decreaseIfDown);
-		randomGenerator = new LinearCongruentialGenerator(lastTime * numberOfSimulations, seed);
+		// streaming mode: the lastTime * numberOfSimulations integers we need are not stored
+		randomGenerator = new AdjustedLinearCongruentialGenerator(seed);
 	}
 
 	
@@ -125,4 +133,43 @@ public class BinomialModelSimulator extends DiscreteStochasticProcessSimulator {
 		// then we can set the realizations: setRealizations is indeed protected
 		setRealizations(realizations);
 	}
-}
\ No newline at end of file
+
+	/*
+	 * It returns the object that multiplies the realizations of S(i) by the ones of M(i) for the paths
+	 * starting from firstSimulationIndex, without storing the process M. As in generateUpsAndDowns(),
+	 * M(i,omega(j)) is given by the integer of index i*numberOfSimulations+j+1 of the random sequence:
+	 * at every time we take the integers we need from a generator which stores none of them, and then
+	 * we jump over the ones of the other paths. In this way, the realizations do not depend on the
+	 * paths considered together.
+	 */
+	@Override
+	protected Consumer<double[]> getTimeStepper(int firstSimulationIndex) {
+		double threshold = convert();// when the simulated number is less than this, we have up
+		return new Consumer<double[]>() {
+
+			// same seed as randomGenerator, but no integer is stored
+			private AdjustedLinearCongruentialGenerator generatorOfBlock = getGeneratorOfBlock(firstSimulationIndex);
+
+			@Override
+			public void accept(double[] realizations) {
+				for (int simulationIndex = 0; simulationIndex < realizations.length; simulationIndex++) {
+					realizations[simulationIndex] *= (generatorOfBlock.getNextInteger() < threshold) ? increaseIfUp
+							: decreaseIfDown;
+				}
+				// the integers for the paths of the other blocks at this time are not needed here
+				generatorOfBlock.jump(getNumberOfSimulations() - realizations.length);
+			}
+		};
+	}
+
+	/*
+	 * It returns a generator with the same seed as randomGenerator, positioned such that its next
+	 * integer is the one used for the path of index firstSimulationIndex at time 0.
+	 */
+	private AdjustedLinearCongruentialGenerator getGeneratorOfBlock(int firstSimulationIndex) {
+		AdjustedLinearCongruentialGenerator generatorOfBlock = new AdjustedLinearCongruentialGenerator(
+				randomGenerator.getSeed());
+		generatorOfBlock.jump(firstSimulationIndex);
+		return generatorOfBlock;
+	}
+}
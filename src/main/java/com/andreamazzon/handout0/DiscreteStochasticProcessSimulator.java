@@ -1,5 +1,13 @@
 package com.andreamazzon.handout0;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
 import com.andreamazzon.session4.usefulmatrices.UsefulMethodsMatricesVectors;
 
 /**
@@ -37,10 +45,29 @@ public abstract class DiscreteStochasticProcessSimulator implements StochasticPr
 	private int numberOfSimulations; // number of simulated trajectories of the process
 	private int lastTime;
 
+	/*
+	 * The number of threads used to generate the realizations: if it is bigger than one, the paths are
+	 * split in blocks which are generated in parallel. It can be set by setNumberOfThreads.
+	 */
+	private int numberOfThreads = 1;
+
+	// the number of blocks of paths given to every thread, when the realizations are generated in parallel
+	private static final int numberOfBlocksPerThread = 4;
+
 	
 	// This method generates the realizations of the process: it is process specific, so it is abstract
 	protected abstract void generateRealizations();
 
+	/*
+	 * It returns an object which updates in place an array of realizations of the process at a given
+	 * time for the paths starting from firstSimulationIndex, making them the realizations at the next
+	 * time. It is process specific, so it is abstract. Every call must return a new object which starts
+	 * again from time 0, and the realizations of a path must not depend on the other paths updated by
+	 * the same object: in this way, the streamed realizations and the ones generated in parallel
+	 * coincide with the ones given by generateRealizations().
+	 */
+	protected abstract Consumer<double[]> getTimeStepper(int firstSimulationIndex);
+
 	/**
 	 * Constructor of the abstract class: not used to directly create an object of
 	 * such class (this is not possible) but is called from derived classes. It is
@@ -56,6 +83,74 @@ public abstract class DiscreteStochasticProcessSimulator implements StochasticPr
 		this.lastTime = lastTime;
 	}
 
+	/**
+	 * It sets the number of threads used to generate the realizations of the process. If it is bigger
+	 * than one, the paths are split in blocks which are generated in parallel by a fork-join pool. The
+	 * realizations are the same as the ones generated with one thread, whatever the number of threads.
+	 * It has effect only if called before the realizations are generated.
+	 *
+	 * @param numberOfThreads, the number of threads used to generate the realizations
+	 */
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	/*
+	 * It generates the realizations, in parallel if more than one thread is used. Called by all the
+	 * methods which need the realizations, only the first time.
+	 */
+	private void generateRealizationsWithGivenNumberOfThreads() {
+		if (numberOfThreads > 1) {
+			generateRealizationsInParallel();
+		} else {
+			generateRealizations();
+		}
+	}
+
+	/*
+	 * It splits the paths in blocks and lets the threads of a fork-join pool fill the columns of the
+	 * matrix of realizations corresponding to every block, by the objects returned by getTimeStepper.
+	 * The blocks do not share any array, so no synchronization is needed.
+	 */
+	private void generateRealizationsInParallel() {
+		double[][] realizations = new double[lastTime + 1][numberOfSimulations];
+		int numberOfBlocks = Math.min(numberOfThreads * numberOfBlocksPerThread, numberOfSimulations);
+		int blockSize = (numberOfSimulations + numberOfBlocks - 1) / numberOfBlocks;// rounded up
+
+		ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+		try {
+			List<ForkJoinTask<?>> blocks = new ArrayList<>();
+			for (int firstSimulationIndex = 0; firstSimulationIndex < numberOfSimulations; firstSimulationIndex += blockSize) {
+				int firstIndex = firstSimulationIndex;// it must be effectively final to be used in the lambda
+				int lastIndex = Math.min(firstSimulationIndex + blockSize, numberOfSimulations);
+				blocks.add(pool.submit(() -> generateRealizationsOfBlock(realizations, firstIndex, lastIndex)));
+			}
+			for (ForkJoinTask<?> block : blocks) {
+				block.join();// we wait until every block is generated
+			}
+		} finally {
+			pool.shutdown();// also if a block throws an exception
+		}
+		setRealizations(realizations);
+	}
+
+	/*
+	 * It fills the entries of realizations for the paths from firstSimulationIndex (included) to
+	 * lastSimulationIndex (excluded), advancing an array of the length of the block.
+	 */
+	private void generateRealizationsOfBlock(double[][] realizations, int firstSimulationIndex,
+			int lastSimulationIndex) {
+		int blockLength = lastSimulationIndex - firstSimulationIndex;
+		double[] realizationsOfBlock = new double[blockLength];
+		Arrays.fill(realizationsOfBlock, initialValue);
+		System.arraycopy(realizationsOfBlock, 0, realizations[0], firstSimulationIndex, blockLength);
+		Consumer<double[]> timeStepper = getTimeStepper(firstSimulationIndex);
+		for (int timeIndex = 1; timeIndex <= lastTime; timeIndex++) {
+			timeStepper.accept(realizationsOfBlock);
+			System.arraycopy(realizationsOfBlock, 0, realizations[timeIndex], firstSimulationIndex, blockLength);
+		}
+	}
+
 	/**
 	 * It sets the field realizations to a specific value. It gets be called in the implementation of
 	 * generateRealizations() of the derived classes.
@@ -79,7 +174,7 @@ public abstract class DiscreteStochasticProcessSimulator implements StochasticPr
 			 * Call of the abstract method, which is of course specific of every process,
 			 * i.e., of every derived class
 			 */
-			generateRealizations(); //it will call setRealizations, then set the value of realizations
+			generateRealizationsWithGivenNumberOfThreads(); //it will call setRealizations, then set the value of realizations
 		}
 		return realizations;
 	}
@@ -92,7 +187,7 @@ public abstract class DiscreteStochasticProcessSimulator implements StochasticPr
 	public double[] getRealizationsAtGivenTime(int time) {
 		// realizations generated only when needed: lazy initialization
 		if (realizations == null) {
-			generateRealizations();// and only once
+			generateRealizationsWithGivenNumberOfThreads();// and only once
 		}
 		return UsefulMethodsMatricesVectors.getRow(realizations, time);
 	}
@@ -107,6 +202,45 @@ public abstract class DiscreteStochasticProcessSimulator implements StochasticPr
 		UsefulMethodsMatricesVectors.printVector(getRealizationsAtGivenTime(time));
 	}
 
+	/**
+	 * It advances all the simulated trajectories of the process one time step at a time and passes
+	 * the realizations at every time to the given consumer. Only one array of length
+	 * numberOfSimulations is used, and the matrix of realizations is never created.
+	 *
+	 * @param timeSliceConsumer, the consumer of the realizations: its first argument is the array of
+	 *                           the realizations of S(i), its second one the time i
+	 */
+	@Override
+	public void streamRealizations(ObjIntConsumer<double[]> timeSliceConsumer) {
+		streamRealizations(timeSliceConsumer, lastTime);
+	}
+
+	/**
+	 * It advances all the simulated trajectories of the process one time step at a time up to
+	 * lastTimeToStream and passes the realizations at every time to the given consumer. The
+	 * realizations after lastTimeToStream are not generated.
+	 *
+	 * @param timeSliceConsumer, the consumer of the realizations: its first argument is the array of
+	 *                           the realizations of S(i), its second one the time i
+	 * @param lastTimeToStream,  the last time i for which the realizations of S(i) are generated
+	 */
+	@Override
+	public void streamRealizations(ObjIntConsumer<double[]> timeSliceConsumer, int lastTimeToStream) {
+		if (lastTimeToStream < 0 || lastTimeToStream > lastTime) {
+			throw new IllegalArgumentException("The last time to stream must be between 0 and " + lastTime);
+		}
+		// the only array we need: at every time i, it hosts the realizations of S(i)
+		double[] currentRealizations = new double[numberOfSimulations];
+		Arrays.fill(currentRealizations, initialValue);
+		timeSliceConsumer.accept(currentRealizations, 0);
+		// a new one every time: it starts again from time 0
+		Consumer<double[]> timeStepper = getTimeStepper(0);
+		for (int timeIndex = 1; timeIndex <= lastTimeToStream; timeIndex++) {
+			timeStepper.accept(currentRealizations);// now they are the realizations of S(timeIndex)
+			timeSliceConsumer.accept(currentRealizations, timeIndex);
+		}
+	}
+
 	/**
 	 * @param simulationIndex, the index of the simulation for which the path is
 	 *                         returned
@@ -116,7 +250,7 @@ public abstract class DiscreteStochasticProcessSimulator implements StochasticPr
 	public double[] getPath(int simulationIndex) {
 		// realizations generated only when needed: lazy initialization
 		if (realizations == null) {
-			generateRealizations();// and only once
+			generateRealizationsWithGivenNumberOfThreads();// and only once
 		}
 		return UsefulMethodsMatricesVectors.getColumn(realizations, simulationIndex);
 	}
@@ -1,5 +1,7 @@
 package com.andreamazzon.handout0;
 
+import java.util.function.ObjIntConsumer;
+
 /**
  * Interface that every class whose goal is to simulate a stochastic process and get its
  * statistics has to implement
@@ -31,6 +33,32 @@ public interface StochasticProcessSimulatorInterface {
 	 */
 	void printRealizationsAtGivenTime(int time);
 
+	/**
+	 * It advances all the simulated trajectories of the process one time step at a time, from time 0
+	 * to the last time, and passes the realizations at every time to the given consumer, together
+	 * with the time itself. Only one array of length equal to the number of simulations is used and
+	 * updated in place: the consumer must then copy it if it wants to keep it. In this way the memory
+	 * needed is of the order of the number of simulations, and not of the number of simulations times
+	 * the number of times. The realizations passed to the consumer are the same as the rows of the
+	 * matrix returned by getRealizations().
+	 *
+	 * @param timeSliceConsumer, the consumer of the realizations: its first argument is the array of
+	 *                           the realizations of S(i), its second one the time i
+	 */
+	void streamRealizations(ObjIntConsumer<double[]> timeSliceConsumer);
+
+	/**
+	 * It does the same as streamRealizations(timeSliceConsumer), but it stops at the given time: the
+	 * realizations at the following times are not generated at all. This is useful when only the
+	 * times up to a maturity smaller than the last time are needed.
+	 *
+	 * @param timeSliceConsumer, the consumer of the realizations: its first argument is the array of
+	 *                           the realizations of S(i), its second one the time i
+	 * @param lastTimeToStream,  the last time i for which the realizations of S(i) are generated and
+	 *                           passed to the consumer. It must be between 0 and the last time
+	 */
+	void streamRealizations(ObjIntConsumer<double[]> timeSliceConsumer, int lastTimeToStream);
+
 	/**
 	 * @param simulationIndex, the index of the simulation for which the path is returned
 	 * @return the path of S for the specific simulation index
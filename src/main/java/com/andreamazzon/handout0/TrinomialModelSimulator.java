@@ -1,6 +1,8 @@
 package com.andreamazzon.handout0;
 
-import com.andreamazzon.session3.encapsulation.lazyinitialization.LinearCongruentialGenerator;
+import java.util.function.Consumer;
+
+import com.andreamazzon.handout2.AdjustedLinearCongruentialGenerator;
 
 /**
  * This class is used in order to simulate some paths of a trinomial model: discrete model for
@@ -13,9 +15,14 @@ import com.andreamazzon.session3.encapsulation.lazyinitialization.LinearCongruen
  * p_1 = (1 + r - d- p_2 * (1 - d)) / (u - d) 
  * where r is the risk free interest rate.
  * This serves as an example of composition combined to inheritance: the class has an object of type
- * LinearCongruentialGenerator, which is used to generate the realizations M(i), and inherits from the
+ * AdjustedLinearCongruentialGenerator, which is used to generate the realizations M(i), and inherits from the
  * abstract class DiscreteStochasticProcessSimulator, where the implementation of methods giving all
  * the realizations of the process together with some statistics are given.
+ * <p>
+ * Note that the realizations of M are generated by AdjustedLinearCongruentialGenerator, whereas
+ * earlier versions of this class used the LinearCongruentialGenerator of session3: the two generators
+ * give different sequences, so the realizations of the process for a given seed are different from the
+ * ones of those versions.
  *
  * @author Andrea Mazzon
  *
@@ -37,7 +44,7 @@ public class TrinomialModelSimulator extends DiscreteStochasticProcessSimulator
 	private double[][] movements; // the matrix of realizations of M
 
 	// imported! composition: we use this object to simulate the values of M
-	private LinearCongruentialGenerator randomGenerator;
+	private AdjustedLinearCongruentialGenerator randomGenerator;
 
 	public TrinomialModelSimulator(double initialValue, double increaseIfUp, double decreaseIfDown,
 			double interestRate, double probabilityStayTheSame, int seed, int lastTime,
@@ -52,7 +59,8 @@ public class TrinomialModelSimulator extends DiscreteStochasticProcessSimulator
 		this.probabilityStayTheSame = probabilityStayTheSame;
 		riskNeutralProbabilityUp = (1 + interestRate - decreaseIfDown - probabilityStayTheSame * (1 - decreaseIfDown))
 				/ (increaseIfUp - decreaseIfDown);
-		randomGenerator = new LinearCongruentialGenerator(lastTime * numberOfSimulations, seed);
+		// streaming mode: the lastTime * numberOfSimulations integers we need are not stored
+		randomGenerator = new AdjustedLinearCongruentialGenerator(seed);
 	}
 
 	
@@ -100,8 +108,8 @@ public class TrinomialModelSimulator extends DiscreteStochasticProcessSimulator
 	 * upsAndDowns[i][j] = u if randomGenerator.getNextInteger() < thresholdUp,
 	 * upsAndDowns[i][j] = 1 if thresholdUp <=randomGenerator.getNextInteger() <= thresholdDown,
 	 * upsAndDowns[i][j] = d if randomGenerator.getNextInteger() > thresholdDown.
-	 * We ask randomGenerator to generate a sequence of random numbers whose length is equal to
-	 * finalTime*numerbOfSimulations.
+	 * We ask randomGenerator to compute finalTime*numerbOfSimulations random numbers, one after the
+	 * other.
 	 */
 	private double[][] generateMovements() {
 		int lastTime = getLastTime();
@@ -152,4 +160,49 @@ public class TrinomialModelSimulator extends DiscreteStochasticProcessSimulator
 		// then we can set the realizations: setRealizations is indeed protected
 		setRealizations(realizations);
 	}
+
+	/*
+	 * It returns the object that multiplies the realizations of S(i) by the ones of M(i) for the paths
+	 * starting from firstSimulationIndex, without storing the process M. As in generateMovements(),
+	 * M(i,omega(j)) is given by the integer of index i*numberOfSimulations+j+1 of the random sequence:
+	 * at every time we take the integers we need from a generator which stores none of them, and then
+	 * we jump over the ones of the other paths. In this way, the realizations do not depend on the
+	 * paths considered together.
+	 */
+	@Override
+	protected Consumer<double[]> getTimeStepper(int firstSimulationIndex) {
+		double thresholdUp = convertProbabilityUp();
+		double thresholdNotDown = convertProbabilityNotDown();
+		return new Consumer<double[]>() {
+
+			// same seed as randomGenerator, but no integer is stored
+			private AdjustedLinearCongruentialGenerator generatorOfBlock = getGeneratorOfBlock(firstSimulationIndex);
+
+			@Override
+			public void accept(double[] realizations) {
+				for (int simulationIndex = 0; simulationIndex < realizations.length; simulationIndex++) {
+					double nextRandomNumber = generatorOfBlock.getNextInteger();
+					if (nextRandomNumber < thresholdUp) {
+						realizations[simulationIndex] *= increaseIfUp;
+					} else if (nextRandomNumber > thresholdNotDown) {
+						realizations[simulationIndex] *= decreaseIfDown;
+					}
+					// otherwise M(i) = 1: nothing to do
+				}
+				// the integers for the paths of the other blocks at this time are not needed here
+				generatorOfBlock.jump(getNumberOfSimulations() - realizations.length);
+			}
+		};
+	}
+
+	/*
+	 * It returns a generator with the same seed as randomGenerator, positioned such that its next
+	 * integer is the one used for the path of index firstSimulationIndex at time 0.
+	 */
+	private AdjustedLinearCongruentialGenerator getGeneratorOfBlock(int firstSimulationIndex) {
+		AdjustedLinearCongruentialGenerator generatorOfBlock = new AdjustedLinearCongruentialGenerator(
+				randomGenerator.getSeed());
+		generatorOfBlock.jump(firstSimulationIndex);
+		return generatorOfBlock;
+	}
 }
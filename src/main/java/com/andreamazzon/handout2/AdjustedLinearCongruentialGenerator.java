@@ -21,6 +21,16 @@ package com.andreamazzon.handout2;
  * already initialized. In order to do that, the best practice is to make
  * generate() private, as well as the sequence itself.
  *
+ * Moreover, any integer x[i] can be computed directly by getIntegerAt(long i),
+ * and the position of getNextInteger() in the sequence can be moved forward by
+ * jump(long steps), without generating the integers in between.
+ * If the generator is constructed only with the seed, no array is created: the
+ * integers are computed one by one when they are needed ("streaming"), so there
+ * is no limit to their number. The methods getNextIntegers and getNextDoubles
+ * fill a given array with the next integers, or with the next numbers in [0,1).
+ * The remainder mod_m can be computed in generate() in two ways, see the enum
+ * CongruenceMethods: by default, by taking the last 48 bits.
+ *
  * @author Andrea Mazzon
  *
  */
@@ -34,12 +44,39 @@ public class AdjustedLinearCongruentialGenerator {
 	private final long c = 11;// automatic upcasting
 	private long seed; // it will be the first entry of our pseudo random number list
 	private int numberOfPseudoRandomNumbers;// default value
-	private int count = 1;
+	private CongruenceMethods congruenceMethod;// how (a*x[i] +c) mod_m is computed in generate()
+	private long count = 1;// the index of the integer returned by the next call of getNextInteger()
+
+	/*
+	 * The last integer computed after the end of the array randomNumbers (for example, after a jump,
+	 * or always in streaming mode), together with its index: the next one is computed from it.
+	 */
+	private long lastComputedInteger;
+	private long indexOfLastComputedInteger = -1;
 
 	// constructor
-	public AdjustedLinearCongruentialGenerator(int numberOfPseudoRandomNumbers, long seed) {
+	public AdjustedLinearCongruentialGenerator(int numberOfPseudoRandomNumbers, long seed,
+			CongruenceMethods congruenceMethod) {
 		this.numberOfPseudoRandomNumbers = numberOfPseudoRandomNumbers;
 		this.seed = seed;
+		this.congruenceMethod = congruenceMethod;
+	}
+
+	/*
+	 * Overloaded constructor: if not specified, the remainder is computed by taking
+	 * the last 48 bits. Note the use of this
+	 */
+	public AdjustedLinearCongruentialGenerator(int numberOfPseudoRandomNumbers, long seed) {
+		this(numberOfPseudoRandomNumbers, seed, CongruenceMethods.BITMASK);
+	}
+
+	/*
+	 * Overloaded constructor for the streaming mode: no sequence is generated in
+	 * advance, and every integer is computed from the previous one when needed.
+	 * Note the use of this
+	 */
+	public AdjustedLinearCongruentialGenerator(long seed) {
+		this(0, seed);
 	}
 
 	/*
@@ -51,8 +88,23 @@ public class AdjustedLinearCongruentialGenerator {
 
 		// initialization! + 1 because the first one is the seed
 		randomNumbers = new long[numberOfPseudoRandomNumbers + 1];
-		long remainderOfMaxValue = Long.MAX_VALUE % modulus;
 		randomNumbers[0] = seed; // the first entry is the seed: first number of the sequence
+		switch (congruenceMethod) {
+		case OVERFLOWCORRECTION:
+			generateWithOverflowCorrection();
+			break;
+		case BITMASK:
+			generateWithBitMask();
+			break;
+		}
+	}
+
+	/*
+	 * It fills randomNumbers correcting the overflow of a*x[i] +c, when it happens,
+	 * before applying %.
+	 */
+	private void generateWithOverflowCorrection() {
+		long remainderOfMaxValue = Long.MAX_VALUE % modulus;
 		for (int indexOfInteger = 0; indexOfInteger < numberOfPseudoRandomNumbers; indexOfInteger++) {
 			long observedValue = a * randomNumbers[indexOfInteger] + c;
 			if (observedValue < 0 /* overflow! */) {
@@ -68,6 +120,23 @@ public class AdjustedLinearCongruentialGenerator {
 		}
 	}
 
+	/*
+	 * It fills randomNumbers taking the last 48 bits of a*x[i] +c. When a*x[i] +c
+	 * overflows, the long we get differs from the true value by a multiple of 2^64,
+	 * hence by a multiple of m = 2^48: the last 48 bits, i.e., the remainder of the
+	 * division by m, are then the correct ones. No branch and no division are needed.
+	 */
+	private void generateWithBitMask() {
+		final long multiplier = a;
+		final long increment = c;
+		final long bitsOfModulus = modulus - 1;
+		long integer = seed;
+		for (int indexOfInteger = 1; indexOfInteger <= numberOfPseudoRandomNumbers; indexOfInteger++) {
+			integer = (multiplier * integer + increment) & bitsOfModulus;
+			randomNumbers[indexOfInteger] = integer;
+		}
+	}
+
 	/**
 	 * getter method for the sequence of pseudo random natural numbers
 	 *
@@ -91,8 +160,178 @@ public class AdjustedLinearCongruentialGenerator {
 	 * @return the next number of the sequence of pseudo random numbers
 	 */
 	public long getNextInteger() {
-		long[] sequence = getRandomNumberSequence();// it gets really generated only once
-		return sequence[count++];
+		if (count <= numberOfPseudoRandomNumbers) {
+			/*
+			 * Note: we do not call getRandomNumberSequence(), since it returns a copy of
+			 * the sequence after the first call, and copying it every time we want a new
+			 * integer would be very expensive
+			 */
+			if (randomNumbers == null) {
+				generate();// it gets really generated only once
+			}
+			return randomNumbers[(int) count++];
+		}
+		// we are after the end of the generated sequence: x[count] is computed from x[count - 1]
+		lastComputedInteger = (a * getPreviousInteger() + c) & (modulus - 1);
+		indexOfLastComputedInteger = count++;
+		return lastComputedInteger;
+	}
+
+	/*
+	 * It returns x[count - 1], when count is after the end of the generated sequence.
+	 * It is computed by getIntegerAt only if it is not the last integer we have
+	 * computed, i.e., the first time after a jump.
+	 */
+	private long getPreviousInteger() {
+		return (indexOfLastComputedInteger == count - 1) ? lastComputedInteger : getIntegerAt(count - 1);
+	}
+
+	/**
+	 * It fills the entries of destination from offset to offset + length - 1 with
+	 * the next length integers of the sequence, as if getNextInteger() was called
+	 * length times. After the end of the generated sequence, no array is created:
+	 * the integers are computed in a simple loop writing directly in destination.
+	 *
+	 * @param destination, the array to be filled
+	 * @param offset,      the index of the first entry of destination to be filled
+	 * @param length,      the number of integers to be written
+	 */
+	public void getNextIntegers(long[] destination, int offset, int length) {
+		int position = offset;
+		// first the ones which are in the generated sequence, if any
+		if (count <= numberOfPseudoRandomNumbers) {
+			if (randomNumbers == null) {
+				generate();
+			}
+			int numberOfStoredIntegers = (int) Math.min(length, numberOfPseudoRandomNumbers - count + 1);
+			System.arraycopy(randomNumbers, (int) count, destination, offset, numberOfStoredIntegers);
+			count += numberOfStoredIntegers;
+			position += numberOfStoredIntegers;
+		}
+		int numberOfComputedIntegers = offset + length - position;
+		if (numberOfComputedIntegers == 0) {
+			return;
+		}
+		// local copies: in this way the loop only works with local variables
+		final long multiplier = a;
+		final long increment = c;
+		final long bitsOfModulus = modulus - 1;
+		long integer = getPreviousInteger();
+		for (; position < offset + length; position++) {
+			integer = (multiplier * integer + increment) & bitsOfModulus;
+			destination[position] = integer;
+		}
+		count += numberOfComputedIntegers;
+		lastComputedInteger = integer;
+		indexOfLastComputedInteger = count - 1;
+	}
+
+	/**
+	 * It fills the entries of destination from offset to offset + length - 1 with
+	 * the next length integers of the sequence divided by the modulus, i.e., with
+	 * length pseudo random numbers in [0,1).
+	 *
+	 * @param destination, the array to be filled
+	 * @param offset,      the index of the first entry of destination to be filled
+	 * @param length,      the number of numbers to be written
+	 */
+	public void getNextDoubles(double[] destination, int offset, int length) {
+		final double inverseOfModulus = 1.0 / modulus;// exact, since the modulus is a power of 2
+		int position = offset;
+		// first the ones which are in the generated sequence, if any
+		if (count <= numberOfPseudoRandomNumbers) {
+			if (randomNumbers == null) {
+				generate();
+			}
+			int numberOfStoredIntegers = (int) Math.min(length, numberOfPseudoRandomNumbers - count + 1);
+			for (int i = 0; i < numberOfStoredIntegers; i++) {
+				destination[position++] = randomNumbers[(int) count++] * inverseOfModulus;
+			}
+		}
+		int numberOfComputedIntegers = offset + length - position;
+		if (numberOfComputedIntegers == 0) {
+			return;
+		}
+		final long multiplier = a;
+		final long increment = c;
+		final long bitsOfModulus = modulus - 1;
+		long integer = getPreviousInteger();
+		for (; position < offset + length; position++) {
+			integer = (multiplier * integer + increment) & bitsOfModulus;
+			destination[position] = integer * inverseOfModulus;
+		}
+		count += numberOfComputedIntegers;
+		lastComputedInteger = integer;
+		indexOfLastComputedInteger = count - 1;
+	}
+
+	/**
+	 * It moves forward the position in the sequence by the given number of steps,
+	 * without generating the integers in between: the next call of getNextInteger()
+	 * returns x[count + steps] instead of x[count]. If we go after the end of the
+	 * sequence generated by getRandomNumberSequence(), the integers are computed one
+	 * by one and not stored: the first one by getIntegerAt, in about
+	 * log_2(count + steps) operations, the following ones from the previous ones.
+	 * In this way, a generator can be positioned at the beginning of a block of
+	 * integers used by a thread, or restarted from a given point.
+	 *
+	 * @param steps, the number of integers we skip. It can also be negative, as
+	 *               long as we do not go before x[1]
+	 */
+	public void jump(long steps) {
+		if (count + steps < 1) {
+			throw new IllegalArgumentException("It is not possible to jump before the first integer after the seed");
+		}
+		count += steps;
+	}
+
+	/**
+	 * It returns the integer x[index] of the sequence, without generating the
+	 * integers before it. The map x -> (a*x+c) mod_m applied index times is again
+	 * of the form x -> (A*x+C) mod_m, and A, C are computed by composing the maps
+	 * obtained applying it 1, 2, 4, 8.. times: only about log_2(index) steps are
+	 * needed. Since the modulus is 2^48, which divides 2^64, the overflows of the
+	 * multiplications of longs do not affect the last 48 bits, so the remainder is
+	 * computed by taking them.
+	 *
+	 * @param index, the index of the integer in the sequence, being x[0] the seed.
+	 *               It must be non negative
+	 * @return the integer x[index] of the sequence
+	 */
+	public long getIntegerAt(long index) {
+		if (index < 0) {
+			throw new IllegalArgumentException("The index of the integer must be non negative");
+		}
+		if (index == 0) {
+			return seed;
+		}
+		final long bitsOfModulus = modulus - 1;
+		// the map x -> (multiplier * x + increment) mod_m: at the beginning, the identity
+		long multiplier = 1;
+		long increment = 0;
+		// the map x -> (a*x+c) mod_m applied 2^k times, at the k-th iteration
+		long multiplierOfPower = a;
+		long incrementOfPower = c;
+		for (long remainingSteps = index; remainingSteps > 0; remainingSteps >>= 1) {
+			if ((remainingSteps & 1) == 1) {
+				// we apply the map 2^k times after the ones applied so far
+				multiplier = (multiplierOfPower * multiplier) & bitsOfModulus;
+				increment = (multiplierOfPower * increment + incrementOfPower) & bitsOfModulus;
+			}
+			// from the map applied 2^k times to the map applied 2^(k+1) times
+			incrementOfPower = ((multiplierOfPower + 1) * incrementOfPower) & bitsOfModulus;
+			multiplierOfPower = (multiplierOfPower * multiplierOfPower) & bitsOfModulus;
+		}
+		return (multiplier * seed + increment) & bitsOfModulus;
+	}
+
+	/**
+	 * getter method for the seed
+	 *
+	 * @return the seed, i.e., the first entry x[0] of the sequence
+	 */
+	public long getSeed() {
+		return seed;
 	}
 
 	/**
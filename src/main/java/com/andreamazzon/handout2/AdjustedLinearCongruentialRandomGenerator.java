@@ -0,0 +1,46 @@
+package com.andreamazzon.handout2;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * This class wraps an AdjustedLinearCongruentialGenerator into a java.util.random.RandomGenerator, so
+ * that it can be used wherever a RandomGenerator is needed, for example to give the uniform realizations
+ * of the random variables of handout6 and handout7. The numbers in [0,1) are taken from the wrapped
+ * generator in blocks by getNextDoubles, and are then given one by one by nextDouble(). As the wrapped
+ * object, it is not thread safe: every thread must have its own instance.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class AdjustedLinearCongruentialRandomGenerator implements RandomGenerator {
+
+	// the number of numbers taken together from the wrapped generator
+	private static final int numberOfDoublesPerBlock = 1024;
+
+	private final AdjustedLinearCongruentialGenerator linearCongruentialGenerator;
+
+	private final double[] blockOfDoubles = new double[numberOfDoublesPerBlock];
+	private int indexInBlock = numberOfDoublesPerBlock;// the block is filled at the first call
+
+	public AdjustedLinearCongruentialRandomGenerator(long seed) {
+		linearCongruentialGenerator = new AdjustedLinearCongruentialGenerator(seed);
+	}
+
+	// x[i]/m, with the integers x[i] of the wrapped generator
+	@Override
+	public double nextDouble() {
+		if (indexInBlock == numberOfDoublesPerBlock) {
+			linearCongruentialGenerator.getNextDoubles(blockOfDoubles, 0, numberOfDoublesPerBlock);
+			indexInBlock = 0;
+		}
+		return blockOfDoubles[indexInBlock++];
+	}
+
+	// 64 random bits, taken as the first 32 bits of two numbers: the last bits of x[i] are less random
+	@Override
+	public long nextLong() {
+		long firstBits = (long) (nextDouble() * 0x1p32);
+		long lastBits = (long) (nextDouble() * 0x1p32);
+		return firstBits << 32 | lastBits;
+	}
+}
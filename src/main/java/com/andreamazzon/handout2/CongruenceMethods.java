@@ -0,0 +1,14 @@
+package com.andreamazzon.handout2;
+
+/**
+ * The two ways in which AdjustedLinearCongruentialGenerator can compute the remainder
+ * (a*x[i] +c) mod_m when it generates the sequence: correcting the overflow of a*x[i] +c
+ * and then applying %, or simply taking the last 48 bits of a*x[i] +c, which is possible
+ * since m = 2^48. They give the same integers.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public enum CongruenceMethods {
+	OVERFLOWCORRECTION, BITMASK
+}
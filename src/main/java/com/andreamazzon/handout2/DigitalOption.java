@@ -30,23 +30,36 @@ public class DigitalOption implements EuropeanTypeOptionMonteCarlo {
 	/**
 	 * It returns a one-dimensional array whose entries are the realizations of the
 	 * payoff of the digital option for the underlying represented by
-	 * underlyingProcess
+	 * underlyingProcess. The realizations of the underlying are streamed one time
+	 * at a time up to maturity, so that only the ones at maturity are used, the
+	 * ones after maturity are not generated and the matrix of all the
+	 * realizations is not needed.
 	 *
 	 * @param underlyingProcess, an object of type StochasticProcessSimulator,
 	 *                           representing the realizations of the underlying
 	 *                           process
 	 * @return the realizations of the payoff, as a one-dimensional array
+	 * @throws IllegalArgumentException if the maturity is not between 0 and the
+	 *                                  last time of the process
 	 */
 	@Override
 	public double[] getPayoff(StochasticProcessSimulatorInterface underlyingProcess) {
-		// realizations of the process at time maturity
-		double[] realizations = underlyingProcess.getRealizationsAtGivenTime(maturity);
-		int numberOfSimulations = realizations.length;// this is the length of the array we return
-		double[] payoff = new double[numberOfSimulations];
-		for (int simulationIndex = 0; simulationIndex < numberOfSimulations; simulationIndex++) {
-			// note: this is the ternary if-else operator
-			payoff[simulationIndex] = (realizations[simulationIndex] > strike) ? 1 : 0;
+		if (maturity < 0 || maturity > underlyingProcess.getLastTime()) {
+			throw new IllegalArgumentException(
+					"The maturity must be between 0 and the last time " + underlyingProcess.getLastTime());
 		}
+		// this is the length of the array we return
+		int numberOfSimulations = underlyingProcess.getNumberOfSimulations();
+		double[] payoff = new double[numberOfSimulations];
+		underlyingProcess.streamRealizations((realizations, time) -> {
+			// realizations of the process at time maturity: the other times are not needed
+			if (time == maturity) {
+				for (int simulationIndex = 0; simulationIndex < numberOfSimulations; simulationIndex++) {
+					// note: this is the ternary if-else operator
+					payoff[simulationIndex] = (realizations[simulationIndex] > strike) ? 1 : 0;
+				}
+			}
+		}, maturity);// nothing is generated after maturity
 		return payoff;
 	}
 
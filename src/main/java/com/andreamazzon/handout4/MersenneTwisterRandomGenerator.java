@@ -0,0 +1,36 @@
+package com.andreamazzon.handout4;
+
+import java.util.random.RandomGenerator;
+
+import net.finmath.randomnumbers.MersenneTwister;
+
+/**
+ * This class wraps the Mersenne Twister of the finmath library into a java.util.random.RandomGenerator,
+ * so that it can be used for the Monte-Carlo computations of MonteCarloEvaluationsAbstract, for example
+ * by giving MersenneTwisterRandomGenerator::new as factory of generators. As the wrapped object, it is
+ * not thread safe: every thread must have its own instance.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class MersenneTwisterRandomGenerator implements RandomGenerator {
+
+	private final MersenneTwister mersenneTwister;
+
+	public MersenneTwisterRandomGenerator(long seed) {
+		mersenneTwister = new MersenneTwister(seed);
+	}
+
+	@Override
+	public double nextDouble() {
+		return mersenneTwister.nextDouble();
+	}
+
+	// 64 random bits, taken as the first 32 bits of two doubles
+	@Override
+	public long nextLong() {
+		long firstBits = (long) (mersenneTwister.nextDouble() * 0x1p32);
+		long lastBits = (long) (mersenneTwister.nextDouble() * 0x1p32);
+		return firstBits << 32 | lastBits;
+	}
+}
@@ -1,5 +1,17 @@
 package com.andreamazzon.handout4;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+import java.util.random.RandomGenerator;
+
+import com.andreamazzon.handout6.StandardNormalFunctions;
+import com.andreamazzon.usefulmethodsmatricesandvectors.OnlineStatistics;
 import com.andreamazzon.usefulmethodsmatricesandvectors.UsefulMethodsMatricesAndVectors;
 
 /**
@@ -10,9 +22,20 @@ import com.andreamazzon.usefulmethodsmatricesandvectors.UsefulMethodsMatricesAnd
  * value and an histogram of its elements.
  * Note that all the methods are based on the protected double[] field
  * monteCarloComputations, that hosts all the elements of the vector.
- * This vector is initialized and filled by the 
- * protected abstract void method generateMonteCarloComputations(), whose
+ * This vector is initialized and filled here, by calling for every element the
+ * protected abstract method computeMonteCarloComputation(RandomGenerator), whose
  * implementation depends on the kind of Monte-Carlo approximation considered.
+ * Every computation gets its own generator of random numbers, constructed by a
+ * factory which can be given in the constructor, with a seed drawn in the order of
+ * the computations from a generator with a given seed: in this way, the computations
+ * are independent and reproducible, and can be performed in parallel giving the same
+ * results (see setNumberOfThreads).
+ * The average, the standard deviation, the minimum and the maximum of the computations,
+ * and their histogram if its bins are given by setHistogramBins, are accumulated by an
+ * object of type OnlineStatistics while the computations are performed, so that they
+ * can be got without copying or going again through the vector.
+ * Instead of fixing the number of computations, one can also let them be performed in
+ * batches until a stopping rule is satisfied, see setTargetHalfWidthOfConfidenceInterval.
  *
  * @author Andrea Mazzon
  *
@@ -26,7 +49,8 @@ public abstract class MonteCarloEvaluationsAbstract implements MonteCarloEvaluat
 
 	/*
 	 * The number of times we perform the Monte-Carlo computations, i.e., the length
-	 * of monteCarloComputations
+	 * of monteCarloComputations. If a stopping rule is set, it is the number of
+	 * computations of every batch until the computations are performed.
 	 */
 	protected int numberOfMonteCarloComputations;
 
@@ -37,65 +61,321 @@ public abstract class MonteCarloEvaluationsAbstract implements MonteCarloEvaluat
 	// its elements are the different values obtained by the Monte-Carlo computations
 	protected double[] monteCarloComputations;
 
-	// it initializes and fills the vector monteCarloComputations
-	protected abstract void generateMonteCarloComputations();
+	// it accumulates the statistics of the computations, when they are performed
+	private OnlineStatistics statisticsOfComputations = new OnlineStatistics();
 
-	// it will be called by the sub-classes
-	public MonteCarloEvaluationsAbstract(int numberOfMonteCarloComputations, int numberOfDrawingsPerMonteCarloComputation) {
+	// the seed used when it is not given in the constructor
+	protected static final long defaultSeed = 1897;
+
+	// the seed of the generator from which the seeds of the computations are drawn
+	private long seed;
+
+	/*
+	 * It constructs the generator of random numbers of a single computation from its seed. A new
+	 * generator is constructed for every computation, so generators which are not thread safe can be used.
+	 */
+	private LongFunction<RandomGenerator> randomGeneratorFactory;
+
+	/*
+	 * The number of threads used to perform the computations: if it is bigger than one, the
+	 * computations are split in blocks which are performed in parallel. It can be set by
+	 * setNumberOfThreads.
+	 */
+	private int numberOfThreads = 1;
+
+	// the number of blocks of computations given to every thread, when they are performed in parallel
+	private static final int numberOfBlocksPerThread = 4;
+
+	/*
+	 * If not null, the computations are performed in batches until it is true for the statistics of
+	 * the computations performed, or until timeBudgetInMilliseconds expires.
+	 */
+	private Predicate<OnlineStatistics> stoppingRule;
+	private long timeBudgetInMilliseconds;
+
+	/*
+	 * It performs a single Monte-Carlo computation, taking the random numbers from randomGenerator:
+	 * this is specific to the quantity we approximate, so it is abstract. It must not use any other
+	 * source of randomness, nor modify the state of the object, since it can be called at the same
+	 * time by different threads.
+	 */
+	protected abstract double computeMonteCarloComputation(RandomGenerator randomGenerator);
+
+	/*
+	 * It will be called by the sub-classes. The generator of random numbers of a single computation is
+	 * constructed by randomGeneratorFactory, from a seed drawn from a generator with the given seed.
+	 */
+	public MonteCarloEvaluationsAbstract(int numberOfMonteCarloComputations, int numberOfDrawingsPerMonteCarloComputation,
+			long seed, LongFunction<RandomGenerator> randomGeneratorFactory) {
 		this.numberOfMonteCarloComputations = numberOfMonteCarloComputations;
 		this.numberOfDrawingsPerMonteCarloComputation = numberOfDrawingsPerMonteCarloComputation;
+		this.seed = seed;
+		this.randomGeneratorFactory = randomGeneratorFactory;
+	}
+
+	// if not specified, the random numbers of every computation are generated by a SplittableRandom
+	public MonteCarloEvaluationsAbstract(int numberOfMonteCarloComputations, int numberOfDrawingsPerMonteCarloComputation,
+			long seed) {
+		this(numberOfMonteCarloComputations, numberOfDrawingsPerMonteCarloComputation, seed, SplittableRandom::new);
+	}
+
+	// if not specified, the seed is 1897
+	public MonteCarloEvaluationsAbstract(int numberOfMonteCarloComputations, int numberOfDrawingsPerMonteCarloComputation) {
+		this(numberOfMonteCarloComputations, numberOfDrawingsPerMonteCarloComputation, defaultSeed);
+	}
+
+	/**
+	 * It returns the seed from which the seeds of the single computations are drawn
+	 *
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * It sets the number of threads used to perform the Monte-Carlo computations. If it is bigger
+	 * than one, the computations are split in blocks which are performed in parallel by a fork-join
+	 * pool. The results are the same as the ones obtained with one thread, whatever the number of
+	 * threads. It has effect only if called before the computations are performed.
+	 *
+	 * @param numberOfThreads, the number of threads used to perform the computations
+	 */
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	/**
+	 * It sets the interval and the number of bins of the histogram of the computations which is
+	 * accumulated while they are performed: the histogram returned by getHistogramComputations for
+	 * these arguments is then got without going through the computations again. It has effect only
+	 * if called before the computations are performed.
+	 *
+	 * @param leftPointOfInterval,  the left point of the interval divided in the bins
+	 * @param rightPointOfInterval, the right point of the interval divided in the bins
+	 * @param numberOfBins,         the number of bins in which the interval is divided
+	 */
+	public void setHistogramBins(double leftPointOfInterval, double rightPointOfInterval, int numberOfBins) {
+		if (monteCarloComputations == null) {
+			statisticsOfComputations = new OnlineStatistics(leftPointOfInterval, rightPointOfInterval, numberOfBins);
+		}
+	}
+
+	/*
+	 * It fills the vector monteCarloComputations, if it is not already filled. It is called by all
+	 * the methods which need the computations.
+	 */
+	protected void generateMonteCarloComputationsIfNeeded() {
+		if (monteCarloComputations == null) {// generated only once!
+			generateMonteCarloComputations();
+		}
+	}
+
+	/*
+	 * It initializes and fills the vector monteCarloComputations, in parallel if more than one
+	 * thread is used. If a stopping rule is set, the computations are performed in batches of
+	 * the number given in the constructor, until the rule is satisfied or the time budget expires.
+	 */
+	private void generateMonteCarloComputations() {
+		long startTime = System.currentTimeMillis();
+		int batchSize = numberOfMonteCarloComputations;
+		SplittableRandom generatorOfSeeds = new SplittableRandom(seed);
+		OnlineStatistics statistics = statisticsOfComputations.getEmptyCopy();
+
+		double[] computations = new double[batchSize];
+		int numberOfComputations = 0;
+		// the same pool for all the batches, if more than one thread is used
+		ForkJoinPool pool = numberOfThreads > 1 ? new ForkJoinPool(numberOfThreads) : null;
+		try {
+			do {
+				if (numberOfComputations + batchSize > computations.length) {
+					// we double the length, so that the copies take a time proportional to the number of computations
+					computations = Arrays.copyOf(computations,
+							Math.max(2 * computations.length, numberOfComputations + batchSize));
+				}
+				generateBatch(computations, numberOfComputations, numberOfComputations + batchSize, generatorOfSeeds,
+						statistics, pool);
+				numberOfComputations += batchSize;
+			} while (stoppingRule != null && !stoppingRule.test(statistics)
+					&& System.currentTimeMillis() - startTime < timeBudgetInMilliseconds);
+		} finally {
+			if (pool != null) {
+				pool.shutdown();// also if a computation throws an exception
+			}
+		}
+
+		numberOfMonteCarloComputations = numberOfComputations;
+		statisticsOfComputations = statistics;
+		monteCarloComputations = computations.length == numberOfComputations ? computations
+				: Arrays.copyOf(computations, numberOfComputations);
+	}
+
+	/*
+	 * It fills the entries of computations from firstComputationIndex (included) to
+	 * lastComputationIndex (excluded), by the threads of pool if it is not null, and merges their
+	 * statistics into statistics. The seeds of the computations are drawn before the computations
+	 * start, always in the same order, so that the i-th computation does not depend on the number of
+	 * threads. The generators are constructed from the seeds only inside the blocks.
+	 */
+	private void generateBatch(double[] computations, int firstComputationIndex, int lastComputationIndex,
+			SplittableRandom generatorOfSeeds, OnlineStatistics statistics, ForkJoinPool pool) {
+		int batchSize = lastComputationIndex - firstComputationIndex;
+		// seeds[i] is the seed of the generator of the computation of index firstComputationIndex + i
+		long[] seeds = new long[batchSize];
+		for (int i = 0; i < batchSize; i++) {
+			seeds[i] = generatorOfSeeds.nextLong();
+		}
+
+		if (pool != null) {
+			int numberOfBlocks = Math.min(numberOfThreads * numberOfBlocksPerThread, batchSize);
+			int blockSize = (batchSize + numberOfBlocks - 1) / numberOfBlocks;// rounded up
+
+			List<ForkJoinTask<OnlineStatistics>> blocks = new ArrayList<>();
+			for (int firstOfBlock = firstComputationIndex; firstOfBlock < lastComputationIndex; firstOfBlock += blockSize) {
+				int firstIndex = firstOfBlock;// it must be effectively final to be used in the lambda
+				int lastIndex = Math.min(firstOfBlock + blockSize, lastComputationIndex);
+				blocks.add(pool.submit(() -> computeBlock(computations, seeds, firstComputationIndex, firstIndex, lastIndex)));
+			}
+			// we wait until every block is computed, and merge the statistics always in the same order
+			for (ForkJoinTask<OnlineStatistics> block : blocks) {
+				statistics.merge(block.join());
+			}
+		} else {
+			statistics.merge(computeBlock(computations, seeds, firstComputationIndex, firstComputationIndex,
+					lastComputationIndex));
+		}
+	}
+
+	/*
+	 * It performs the computations from firstComputationIndex (included) to lastComputationIndex
+	 * (excluded), and returns their statistics. The seeds start from the one of the computation of
+	 * index firstIndexOfSeeds: the generator of every computation is constructed from its seed just
+	 * before the computation, so that only one of them at a time is alive for every block.
+	 */
+	private OnlineStatistics computeBlock(double[] computations, long[] seeds, int firstIndexOfSeeds,
+			int firstComputationIndex, int lastComputationIndex) {
+		OnlineStatistics statisticsOfBlock = statisticsOfComputations.getEmptyCopy();
+		for (int i = firstComputationIndex; i < lastComputationIndex; i++) {
+			computations[i] = computeMonteCarloComputation(randomGeneratorFactory.apply(seeds[i - firstIndexOfSeeds]));
+			statisticsOfBlock.add(computations[i]);
+		}
+		return statisticsOfBlock;
+	}
+
+	/**
+	 * It returns the half width of the confidence interval at a given level for the expectation of
+	 * the computations, based on the Central Limit Theorem: the average of the computations lies in
+	 * the interval of this half width around the expectation with probability approximately equal to
+	 * the level. The computations are performed if they have not been performed yet.
+	 *
+	 * @param confidenceLevel, the level of the confidence interval
+	 * @return the half width of the confidence interval
+	 */
+	public double getHalfWidthOfConfidenceInterval(double confidenceLevel) {
+		return getHalfWidthOfConfidenceInterval(getStatisticsOfComputations(),
+				StandardNormalFunctions.getQuantile((1 + confidenceLevel) / 2));
+	}
+
+	/*
+	 * q sigma / sqrt(n), with the standard deviation estimated from the computations: q is the quantile
+	 * q_{(1+level)/2} of the standard normal distribution, which is passed so that it is computed only once
+	 * when the half width is computed after every batch.
+	 */
+	private static double getHalfWidthOfConfidenceInterval(OnlineStatistics statistics, double quantile) {
+		return quantile * statistics.getStandardDeviation() / Math.sqrt(statistics.getNumberOfValues());
+	}
+
+	/**
+	 * It makes the computations be performed in batches of the number of computations given in the
+	 * constructor, until the half width of the confidence interval at level confidenceLevel for the
+	 * expectation of the computations is not bigger than targetHalfWidth, or until the time budget
+	 * expires. The batch during which the time budget expires is completed. After the computations
+	 * are performed, their number can be got by getNumberOfMonteCarloComputations(). It has effect
+	 * only if called before the computations are performed.
+	 *
+	 * @param targetHalfWidth,          the half width of the confidence interval at which we stop
+	 * @param confidenceLevel,          the level of the confidence interval
+	 * @param timeBudgetInMilliseconds, the time after which no other batch is started
+	 */
+	public void setTargetHalfWidthOfConfidenceInterval(double targetHalfWidth, double confidenceLevel,
+			long timeBudgetInMilliseconds) {
+		// computed once here, not every time the rule is tested
+		double quantile = StandardNormalFunctions.getQuantile((1 + confidenceLevel) / 2);
+		setStoppingRule(statistics -> getHalfWidthOfConfidenceInterval(statistics, quantile) <= targetHalfWidth,
+				timeBudgetInMilliseconds);
+	}
+
+	/*
+	 * It makes the computations be performed in batches until stoppingRule, tested on the statistics
+	 * of all the computations performed, is true, or until the time budget expires.
+	 */
+	protected void setStoppingRule(Predicate<OnlineStatistics> stoppingRule, long timeBudgetInMilliseconds) {
+		if (monteCarloComputations == null) {
+			this.stoppingRule = stoppingRule;
+			this.timeBudgetInMilliseconds = timeBudgetInMilliseconds;
+		}
+	}
+
+	/**
+	 * It returns the number of Monte-Carlo computations: the one given in the constructor, or the one
+	 * of the computations performed if a stopping rule is set.
+	 *
+	 * @return the number of Monte-Carlo computations
+	 */
+	public int getNumberOfMonteCarloComputations() {
+		return numberOfMonteCarloComputations;
 	}
 
 	// The Javadoc documentation is already given in the interface
 	@Override
 	public double[] getComputations() {
 		/*
-		 * Note that this method is called by all the other methods of the interface.
 		 * Anyway, the array monteCarloComputations is filled only once, so the values
-		 * will always be the same.
+		 * will always be the same. We return a copy, so that it cannot be modified from outside.
 		 */
-		if (monteCarloComputations == null) {// generated only once!
-			generateMonteCarloComputations();
-		}
+		generateMonteCarloComputationsIfNeeded();
 		return monteCarloComputations.clone();
 	}
 
+	/**
+	 * It returns the object which has accumulated the statistics of the computations, performing
+	 * them if they have not been performed yet.
+	 *
+	 * @return the statistics of the computations
+	 */
+	public OnlineStatistics getStatisticsOfComputations() {
+		generateMonteCarloComputationsIfNeeded();
+		return statisticsOfComputations;
+	}
+
 	@Override
 	public double getAverageComputations() {
-		
-		// we get the vector of computations and pass it to UsefulMethodsMatricesVectors.getAverage
-		double average = UsefulMethodsMatricesAndVectors.getAverage(getComputations());
-		return average;
+		return getStatisticsOfComputations().getAverage();
 	}
 
 	@Override
 	public double getStandardDeviationComputations() {
-		
-		// we get the vector of computations and pass it to UsefulMethodsMatricesVectors.getStandardDeviation
-		double standardDeviation = UsefulMethodsMatricesAndVectors.getStandardDeviation(getComputations());
-		return standardDeviation;
+		return getStatisticsOfComputations().getStandardDeviation();
 	}
 
 	@Override
 	public double[] getMinAndMaxComputations() {
-		/*
-		 * we get the vector of computations and pass it to
-		 * UsefulMethodsMatricesVectors.getMin and UsefulMethodsMatricesVectors.getMax.
-		 * Here we create the array computations not to call the method
-		 * getComputations() twice
-		 */
-		double[] computations = getComputations();
-		double min = UsefulMethodsMatricesAndVectors.getMin(computations);
-		double max = UsefulMethodsMatricesAndVectors.getMax(computations);
-		double[] minAndMax = { min, max };
+		OnlineStatistics statistics = getStatisticsOfComputations();
+		double[] minAndMax = { statistics.getMin(), statistics.getMax() };
 		return minAndMax;
 	}
 
 	@Override
 	public int[] getHistogramComputations(double leftPointOfInterval, double rightPointOfInterval, int numberOfBins) {
-		
-		// we get the vector of computations and pass it to UsefulMethodsMatricesVectors.buildHistogram.
-		int[] histogram = UsefulMethodsMatricesAndVectors.buildHistogram(getComputations(), leftPointOfInterval,
+		OnlineStatistics statistics = getStatisticsOfComputations();
+		if (statistics.hasHistogram(leftPointOfInterval, rightPointOfInterval, numberOfBins)) {
+			return statistics.getHistogram();
+		}
+		/*
+		 * Other bins than the ones given by setHistogramBins: we pass the vector of computations
+		 * to UsefulMethodsMatricesVectors.buildHistogram, without copying it.
+		 */
+		int[] histogram = UsefulMethodsMatricesAndVectors.buildHistogram(monteCarloComputations, leftPointOfInterval,
 				rightPointOfInterval, numberOfBins);
 		return histogram;
 	}
@@ -1,5 +1,9 @@
 package com.andreamazzon.handout4;
 
+import java.util.function.LongFunction;
+import java.util.random.RandomGenerator;
+
+import com.andreamazzon.usefulmethodsmatricesandvectors.OnlineStatistics;
 import com.andreamazzon.usefulmethodsmatricesandvectors.UsefulMethodsMatricesAndVectors;
 
 /**
@@ -30,22 +34,57 @@ public abstract class MonteCarloEvaluationsWithExactResultAbstract extends Monte
 	 * It will be called by the constructor of the sub-classes. In turn, it calls
 	 * itself the constructor of the parent class MonteCarloEvaluationsAbstract
 	 */
+	public MonteCarloEvaluationsWithExactResultAbstract(int numberOfMonteCarloComputations, int numberOfDrawings,
+			double exactResult, long seed, LongFunction<RandomGenerator> randomGeneratorFactory) {
+		super(numberOfMonteCarloComputations, numberOfDrawings, seed, randomGeneratorFactory);
+		this.exactResult = exactResult;
+	}
+
+	public MonteCarloEvaluationsWithExactResultAbstract(int numberOfMonteCarloComputations, int numberOfDrawings,
+			double exactResult, long seed) {
+		super(numberOfMonteCarloComputations, numberOfDrawings, seed);
+		this.exactResult = exactResult;
+	}
+
 	public MonteCarloEvaluationsWithExactResultAbstract(int numberOfMonteCarloComputations, int numberOfDrawings,
 			double exactResult) {
 		super(numberOfMonteCarloComputations, numberOfDrawings);
 		this.exactResult = exactResult;
 	}
 
+	/**
+	 * It makes the computations be performed in batches of the number of computations given in the
+	 * constructor, until the absolute error of the average of the computations with respect to the
+	 * exact result is not bigger than targetAbsoluteError, or until the time budget expires. Note that
+	 * this is possible only because here we know the exact result. It has effect only if called
+	 * before the computations are performed.
+	 *
+	 * @param targetAbsoluteError,      the absolute error at which we stop
+	 * @param timeBudgetInMilliseconds, the time after which no other batch is started
+	 */
+	public void setTargetAbsoluteError(double targetAbsoluteError, long timeBudgetInMilliseconds) {
+		setStoppingRule(statistics -> Math.abs(statistics.getAverage() - exactResult) <= targetAbsoluteError,
+				timeBudgetInMilliseconds);
+	}
+
 	@Override
 	public double[] getAbsoluteErrorsOfComputations() {
-		double[] errors = UsefulMethodsMatricesAndVectors.sumVectorAndDouble(getComputations(), -exactResult);
+		generateMonteCarloComputationsIfNeeded();
+		// the vector of computations is not modified by sumVectorAndDouble, so we do not copy it
+		double[] errors = UsefulMethodsMatricesAndVectors.sumVectorAndDouble(monteCarloComputations, -exactResult);
 		double[] absoluteErrors = UsefulMethodsMatricesAndVectors.absVector(errors);
 		return absoluteErrors;
 	}
 
 	@Override
 	public double getAverageAbsoluteError() {
-		return UsefulMethodsMatricesAndVectors.getAverage(getAbsoluteErrorsOfComputations());
+		// one pass through the computations, without storing the errors
+		generateMonteCarloComputationsIfNeeded();
+		OnlineStatistics statisticsOfAbsoluteErrors = new OnlineStatistics();
+		for (double computation : monteCarloComputations) {
+			statisticsOfAbsoluteErrors.add(Math.abs(computation - exactResult));
+		}
+		return statisticsOfAbsoluteErrors.getAverage();
 	}
 
 }
@@ -1,5 +1,6 @@
 package com.andreamazzon.handout4;
 
+import java.util.random.RandomGenerator;
 import java.util.stream.DoubleStream;
 
 import net.finmath.randomnumbers.MersenneTwister;
@@ -39,11 +40,20 @@ public class MonteCarloIntegrationPowerFunction extends MonteCarloEvaluationsWit
 		// return randomNumbers.map(x -> Math.pow(x, exponent)).average().getAsDouble();
 	}
 
+	/**
+	 * It computes the Monte Carlo approximation of the integral of integrand in [0,1], taking the
+	 * random numbers from randomGenerator.
+	 *
+	 * @param randomGenerator, the generator of the random numbers
+	 * @return the approximated value of the integral
+	 */
+	public double computeIntegral(RandomGenerator randomGenerator) {
+		return DoubleStream.generate(randomGenerator::nextDouble).limit(numberOfDrawingsPerMonteCarloComputation)
+				.map(x -> Math.pow(x, exponent)).average().getAsDouble();
+	}
+
 	@Override
-	protected void generateMonteCarloComputations() {
-		monteCarloComputations = new double[numberOfMonteCarloComputations];
-		for (int i = 0; i < numberOfMonteCarloComputations; i++) {
-			monteCarloComputations[i] = computeIntegral();// specific computation
-		}
+	protected double computeMonteCarloComputation(RandomGenerator randomGenerator) {
+		return computeIntegral(randomGenerator);// specific computation
 	}
 }
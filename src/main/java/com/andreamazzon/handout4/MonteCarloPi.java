@@ -1,5 +1,8 @@
 package com.andreamazzon.handout4;
 
+import java.util.SplittableRandom;
+import java.util.function.LongFunction;
+import java.util.random.RandomGenerator;
 
 /**
  * This class regards the approximation of Pi by Monte-Carlo. It implicitly
@@ -17,20 +20,42 @@ public class MonteCarloPi extends MonteCarloEvaluationsWithExactResultAbstract {
 		super(numberOfMonteCarloComputations, numberOfSimulatedPoints, Math.PI);
 	}
 
+	// the seeds of the single computations are drawn from a generator with the given seed
+	public MonteCarloPi(int numberOfMonteCarloComputations, int numberOfSimulatedPoints, long seed) {
+		super(numberOfMonteCarloComputations, numberOfSimulatedPoints, Math.PI, seed);
+	}
+
+	// the generator of every computation is constructed by randomGeneratorFactory from its seed
+	public MonteCarloPi(int numberOfMonteCarloComputations, int numberOfSimulatedPoints, long seed,
+			LongFunction<RandomGenerator> randomGeneratorFactory) {
+		super(numberOfMonteCarloComputations, numberOfSimulatedPoints, Math.PI, seed, randomGeneratorFactory);
+	}
+
 	/**
 	 * It computes a Monte Carlo approximation of pi as the area of a circle of
 	 * radius 1, which is of course four times the area of the part of the circle in
 	 * the first quadrant. We compute this area by a Monte Carlo method as the
 	 * fraction of random, independent numbers (x,y) between 0 and 1, such that
-	 * x^2+y^2<=1.
+	 * x^2+y^2<=1. The random numbers are taken from a new, not seeded generator.
 	 *
 	 * @return the approximation of pi.
 	 */
 	public double piMonteCarlo() {
+		return piMonteCarlo(new SplittableRandom());
+	}
+
+	/**
+	 * It computes a Monte Carlo approximation of pi as the area of a circle of
+	 * radius 1, as piMonteCarlo(), taking the random numbers from randomGenerator.
+	 *
+	 * @param randomGenerator, the generator of the random numbers
+	 * @return the approximation of pi.
+	 */
+	public double piMonteCarlo(RandomGenerator randomGenerator) {
 		int numberOfPointsInsideCircle = 0;
 		for (int i = 0; i < numberOfDrawingsPerMonteCarloComputation; i++) {
-			double x = Math.random();// random double between 0 and 1
-			double y = Math.random();// random double between 0 and 1
+			double x = randomGenerator.nextDouble();// random double between 0 and 1
+			double y = randomGenerator.nextDouble();// random double between 0 and 1
 			if (x * x + y * y <= 1) {
 				numberOfPointsInsideCircle += 1;
 			}
@@ -40,10 +65,7 @@ public class MonteCarloPi extends MonteCarloEvaluationsWithExactResultAbstract {
 	}
 
 	@Override
-	protected void generateMonteCarloComputations() {
-		monteCarloComputations = new double[numberOfMonteCarloComputations];
-		for (int i = 0; i < numberOfMonteCarloComputations; i++) {
-			monteCarloComputations[i] = piMonteCarlo();// pi_i
-		}
+	protected double computeMonteCarloComputation(RandomGenerator randomGenerator) {
+		return piMonteCarlo(randomGenerator);// pi_i
 	}
 }
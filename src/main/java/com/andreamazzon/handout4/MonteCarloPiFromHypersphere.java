@@ -1,5 +1,9 @@
 package com.andreamazzon.handout4;
 
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.LongFunction;
+import java.util.random.RandomGenerator;
 
 /**
  * This class deals with the approximation of Pi by Monte-Carlo. In particular,
@@ -17,6 +21,9 @@ public class MonteCarloPiFromHypersphere extends MonteCarloEvaluationsWithExactR
 
 	private int dimension;// dimension of the unit hyperpshere
 
+	// the number of points whose coordinates are generated together, see piMonteCarloGeneralDimension
+	private static final int numberOfPointsPerBlock = 256;
+
 	/**
 	 * It constructs an object of the class in order to approximate pi by
 	 * Monte-Carlo from the volume of an hypersphere of general dimension.
@@ -34,32 +41,59 @@ public class MonteCarloPiFromHypersphere extends MonteCarloEvaluationsWithExactR
 		this.dimension = dimension;// specific field of this class
 	}
 
-	/*
-	 * used in order to compute the approximation of pi from the one of the volume
-	 * of the unit hypersphere
+	/**
+	 * It constructs an object of the class in order to approximate pi by
+	 * Monte-Carlo from the volume of an hypersphere of general dimension, with a
+	 * given seed.
+	 *
+	 * @param numberOfMonteCarloComputations: the number of times we approximate the
+	 *                                        value of pi
+	 * @param numberOfSimulatedPoints:        the number of points in R^n simulated
+	 *                                        every time in order to compute the
+	 *                                        approximated value of pi
+	 * @param dimension:                      the dimension of the hypersphere
+	 * @param seed:                           the seed of the generator from which
+	 *                                        the seeds of the single computations
+	 *                                        are drawn
 	 */
-	private static int factorial(int n) {
-		if (n < 1) {
-			return 1; // note: return already exits the method. No need for else
-		}
-		return n * factorial(n - 1);
+	public MonteCarloPiFromHypersphere(int numberOfMonteCarloComputations, int numberOfSimulatedPoints, int dimension,
+			long seed) {
+		super(numberOfMonteCarloComputations, numberOfSimulatedPoints, Math.PI, seed);
+		this.dimension = dimension;
+	}
+
+	/**
+	 * It constructs an object of the class in order to approximate pi by
+	 * Monte-Carlo from the volume of an hypersphere of general dimension, with a
+	 * given seed and a given generator of random numbers.
+	 *
+	 * @param numberOfMonteCarloComputations: the number of times we approximate the
+	 *                                        value of pi
+	 * @param numberOfSimulatedPoints:        the number of points in R^n simulated
+	 *                                        every time in order to compute the
+	 *                                        approximated value of pi
+	 * @param dimension:                      the dimension of the hypersphere
+	 * @param seed:                           the seed of the generator from which
+	 *                                        the seeds of the single computations
+	 *                                        are drawn
+	 * @param randomGeneratorFactory:         it constructs the generator of random
+	 *                                        numbers of a single computation from
+	 *                                        its seed
+	 */
+	public MonteCarloPiFromHypersphere(int numberOfMonteCarloComputations, int numberOfSimulatedPoints, int dimension,
+			long seed, LongFunction<RandomGenerator> randomGeneratorFactory) {
+		super(numberOfMonteCarloComputations, numberOfSimulatedPoints, Math.PI, seed, randomGeneratorFactory);
+		this.dimension = dimension;
 	}
 
 	/*
 	 * Here we suppose to have (the approximated) volume, and we compute the value
 	 * of pi inverting the formulas V_{2k} = pi^k/k!, V_{2k+1}=2(4*pi)^k*k!/(2k+1)!,
-	 * where V_n is the volume of the unit hypersphere in n dimensions.
+	 * where V_n is the volume of the unit hypersphere in n dimensions. The
+	 * factorials are not computed: see UnitHypersphere.
 	 */
 	private double computePiFromComputedVolume(double volume) {
-		double approximatedPi; // only definition here, initialization in the if/else loop
-		if (dimension % 2 == 0) { // V_{2k} = pi^k/k! --> pi = (V_{2k}*k!)^(1/k)
-			int k = dimension / 2;
-			approximatedPi = Math.pow(volume * factorial(k), 1.0 / k);
-		} else {// V_{2k+1}=2(4*pi)^k*k!/(2k+1)! ---> pi = 1/4*(V_{2k+1}*(2k+1)!/(2k!))^(1/k)
-			int k = (dimension - 1) / 2;
-			approximatedPi = Math.pow(volume * factorial(dimension) / (2.0 * factorial(k)), 1.0 / k) / 4.0;
-		}
-		return approximatedPi;
+		return UnitHypersphere.getPiFromVolume(volume, dimension);
 	}
 
 	/**
@@ -67,11 +101,78 @@ public class MonteCarloPiFromHypersphere extends MonteCarloEvaluationsWithExactR
 	 * hypersphere of dimension d. This volume is computed by a Monte Carlo method.
 	 * In particular, it is equal to 2^d times the fraction of random, independent
 	 * numbers (x_1,..,x_d) uniformly distributed between 0 and 1, such that
-	 * (2*(x_1-0.5))^2+...+(2*(x_d-0.5))^2<=1.
+	 * (2*(x_1-0.5))^2+...+(2*(x_d-0.5))^2<=1. The random numbers are taken from a
+	 * new, not seeded generator.
 	 *
 	 * @return the approximation of pi.
 	 */
 	public double piMonteCarloGeneralDimension() {
+		return piMonteCarloGeneralDimension(new SplittableRandom());
+	}
+
+	/**
+	 * It computes a Monte Carlo approximation of pi from the volume of a unit
+	 * hypersphere of dimension d, as piMonteCarloGeneralDimension(), taking the
+	 * random numbers from randomGenerator. The points are generated in blocks:
+	 * the uniforms of a block are first written in a buffer, coordinate by
+	 * coordinate, and then the sums of squares and the number of points inside the
+	 * hypersphere are computed by loops without branches over all the points of the
+	 * block, which the JIT compiler can translate into vector (SIMD) instructions.
+	 * The random numbers are assigned to the points in the same order as in
+	 * piMonteCarloGeneralDimensionPointByPoint, so that the result is exactly the
+	 * same.
+	 *
+	 * @param randomGenerator, the generator of the random numbers
+	 * @return the approximation of pi.
+	 */
+	public double piMonteCarloGeneralDimension(RandomGenerator randomGenerator) {
+		int blockSize = Math.min(numberOfPointsPerBlock, numberOfDrawingsPerMonteCarloComputation);
+		// coordinates[j * blockSize + i] is the j-th coordinate of the i-th point of the block
+		double[] coordinates = new double[dimension * blockSize];
+		double[] sumsOfSquares = new double[blockSize];
+
+		int numberOfPointsInsideHypersphere = 0;
+		for (int firstPointIndex = 0; firstPointIndex < numberOfDrawingsPerMonteCarloComputation; firstPointIndex += blockSize) {
+			int numberOfPointsOfBlock = Math.min(blockSize, numberOfDrawingsPerMonteCarloComputation - firstPointIndex);
+
+			// the random numbers are drawn point by point, and written coordinate by coordinate
+			for (int i = 0; i < numberOfPointsOfBlock; i++) {
+				for (int j = 0; j < dimension; j++) {
+					coordinates[j * blockSize + i] = randomGenerator.nextDouble();
+				}
+			}
+
+			// (2*(x_1-0.5))^2+...+(2*(x_d-0.5))^2 for all the points, adding one coordinate at a time
+			Arrays.fill(sumsOfSquares, 0, numberOfPointsOfBlock, 0.0);
+			for (int j = 0; j < dimension; j++) {
+				int offset = j * blockSize;
+				for (int i = 0; i < numberOfPointsOfBlock; i++) {
+					double newRandom = 2 * (coordinates[offset + i] - 0.5);
+					sumsOfSquares[i] += newRandom * newRandom;
+				}
+			}
+
+			// no if: a conditional expression avoids the branches which cannot be predicted
+			for (int i = 0; i < numberOfPointsOfBlock; i++) {
+				numberOfPointsInsideHypersphere += sumsOfSquares[i] <= 1 ? 1 : 0;
+			}
+		}
+		double volumeApproximation = Math.pow(2.0, dimension) * numberOfPointsInsideHypersphere / numberOfDrawingsPerMonteCarloComputation;
+
+		return computePiFromComputedVolume(volumeApproximation);
+	}
+
+	/**
+	 * It computes a Monte Carlo approximation of pi from the volume of a unit
+	 * hypersphere of dimension d, taking the random numbers from randomGenerator
+	 * and checking one point at a time if it is inside the hypersphere. It gives
+	 * the same result as piMonteCarloGeneralDimension(RandomGenerator), which is
+	 * faster.
+	 *
+	 * @param randomGenerator, the generator of the random numbers
+	 * @return the approximation of pi.
+	 */
+	public double piMonteCarloGeneralDimensionPointByPoint(RandomGenerator randomGenerator) {
 		int numberOfPointsInsideHypersphere = 0;
 		for (int i = 0; i < numberOfDrawingsPerMonteCarloComputation; i++) {
 
@@ -79,7 +180,7 @@ public class MonteCarloPiFromHypersphere extends MonteCarloEvaluationsWithExactR
 			// at every iteration, sample (x_1,...,x_d) and compute (2*(x_1-0.5))^2+...+(2*(x_d-0.5))^2
 			double sumOfSquares = 0;
 			for (int j = 0; j < dimension; j++) {
-				double newRandom = 2 * (Math.random() - 0.5);
+				double newRandom = 2 * (randomGenerator.nextDouble() - 0.5);
 				sumOfSquares += newRandom * newRandom;
 			}
 
@@ -102,10 +203,7 @@ public class MonteCarloPiFromHypersphere extends MonteCarloEvaluationsWithExactR
 	}
 
 	@Override
-	protected void generateMonteCarloComputations() {
-		monteCarloComputations = new double[numberOfMonteCarloComputations];
-		for (int i = 0; i < numberOfMonteCarloComputations; i++) {
-			monteCarloComputations[i] = piMonteCarloGeneralDimension();// pi_i
-		}
+	protected double computeMonteCarloComputation(RandomGenerator randomGenerator) {
+		return piMonteCarloGeneralDimension(randomGenerator);// pi_i
 	}
 }
@@ -0,0 +1,89 @@
+package com.andreamazzon.handout4;
+
+/**
+ * This class provides the inversion of the formulas V_{2k} = pi^k/k!, V_{2k+1}=2(4*pi)^k*k!/(2k+1)!,
+ * where V_n is the volume of the unit hypersphere in n dimensions, in order to compute pi from an
+ * approximation of the volume. It is used by all the classes approximating pi from the volume of an
+ * hypersphere. The factorials are not computed, since they would exceed the biggest int already for
+ * 13! and the biggest double for 171!: instead, we work with their logarithms, which are stored in a
+ * table computed only once. In this way, the inversion is possible for every dimension and costs
+ * only a few operations.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class UnitHypersphere {
+
+	// log(n!) for n = 0,...,numberOfTabulatedLogFactorials - 1
+	private static final int numberOfTabulatedLogFactorials = 1024;
+	private static final double[] logFactorials = computeLogFactorials(numberOfTabulatedLogFactorials);
+
+	// log(n!) = log((n-1)!) + log(n)
+	private static double[] computeLogFactorials(int numberOfLogFactorials) {
+		double[] logFactorials = new double[numberOfLogFactorials];
+		for (int n = 1; n < numberOfLogFactorials; n++) {
+			logFactorials[n] = logFactorials[n - 1] + Math.log(n);
+		}
+		return logFactorials;
+	}
+
+	/**
+	 * It returns the logarithm of n!, taken from a table if n is smaller than 1024.
+	 *
+	 * @param n, a non negative integer
+	 * @return log(n!)
+	 */
+	public static double getLogFactorial(int n) {
+		if (n < 0) {
+			throw new IllegalArgumentException("The factorial is defined only for non negative integers.");
+		}
+		if (n < numberOfTabulatedLogFactorials) {
+			return logFactorials[n];
+		}
+		// not tabulated: we continue the sum from the last tabulated value
+		double logFactorial = logFactorials[numberOfTabulatedLogFactorials - 1];
+		for (int i = numberOfTabulatedLogFactorials; i <= n; i++) {
+			logFactorial += Math.log(i);
+		}
+		return logFactorial;
+	}
+
+	/**
+	 * It computes pi from the volume of the unit hypersphere in a given dimension, inverting the
+	 * formulas V_{2k} = pi^k/k!, V_{2k+1}=2(4*pi)^k*k!/(2k+1)!. The computation is done in
+	 * logarithms: for example, pi = exp((log(V_{2k}) + log(k!))/k).
+	 *
+	 * @param volume,    the (approximated) volume of the unit hypersphere
+	 * @param dimension, the dimension of the hypersphere, at least 2
+	 * @return the value of pi given by the volume
+	 */
+	public static double getPiFromVolume(double volume, int dimension) {
+		if (dimension < 2) {
+			throw new IllegalArgumentException("The volume of the hypersphere gives pi only from dimension 2.");
+		}
+		double logVolume = Math.log(volume);// minus infinity for zero volume: then pi is approximated by zero
+		if (dimension % 2 == 0) { // V_{2k} = pi^k/k! --> pi = (V_{2k}*k!)^(1/k)
+			int k = dimension / 2;
+			return Math.exp((logVolume + getLogFactorial(k)) / k);
+		}
+		// V_{2k+1}=2(4*pi)^k*k!/(2k+1)! ---> pi = 1/4*(V_{2k+1}*(2k+1)!/(2k!))^(1/k)
+		int k = (dimension - 1) / 2;
+		return Math.exp((logVolume + getLogFactorial(dimension) - Math.log(2.0) - getLogFactorial(k)) / k) / 4.0;
+	}
+
+	/**
+	 * It returns the volume of the unit hypersphere in a given dimension, computed from the formulas
+	 * V_{2k} = pi^k/k!, V_{2k+1}=2(4*pi)^k*k!/(2k+1)!, with pi given by Math.PI.
+	 *
+	 * @param dimension, the dimension of the hypersphere
+	 * @return the volume of the unit hypersphere
+	 */
+	public static double getVolume(int dimension) {
+		if (dimension % 2 == 0) {
+			int k = dimension / 2;
+			return Math.exp(k * Math.log(Math.PI) - getLogFactorial(k));
+		}
+		int k = (dimension - 1) / 2;
+		return Math.exp(Math.log(2.0) + k * Math.log(4 * Math.PI) + getLogFactorial(k) - getLogFactorial(dimension));
+	}
+}
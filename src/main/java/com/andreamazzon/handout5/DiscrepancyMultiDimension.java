@@ -0,0 +1,306 @@
+package com.andreamazzon.handout5;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * This class is devoted to the evaluation of the uniformity of a set of points in [0,1)^d, in order to
+ * compare different low discrepancy sequences. The star discrepancy
+ * D* = sup_{y \in [0,1]^d} |A([0,y))/n - vol([0,y))|, where A([0,y)) is the number of points in the box
+ * [0,y), is too expensive to be computed exactly for more than a few dimensions. Here we provide:
+ * - the L2 star discrepancy, i.e., the L2 norm (instead of the supremum) of the local discrepancy
+ * A([0,y))/n - vol([0,y)), computed exactly by the formula of Warnock in O(n^2 d) operations;
+ * - a lower bound of the star discrepancy, given by the maximum of the local discrepancy over randomly
+ * chosen boxes.
+ * The points are given as a flat array, coordinate by coordinate, as written by the method fillBlock of
+ * QuasiRandomSequenceInBlocks. Both the computations can be done in parallel (see setNumberOfThreads),
+ * with the same result as when they are done by one thread.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class DiscrepancyMultiDimension {
+
+	private final double[] coordinates;
+	private final int numberOfPoints;
+	private final int dimension;
+
+	// the number of points (for the L2 discrepancy) or of boxes (for the lower bound) checked by a task
+	private static final int numberOfPointsPerTask = 64;
+	private static final int numberOfBoxesPerTask = 64;
+
+	/*
+	 * The number of threads used for the computations. The tasks do not depend on it, so neither do
+	 * the results. It can be set by setNumberOfThreads.
+	 */
+	private int numberOfThreads = 1;
+
+	/**
+	 * It constructs an object to evaluate the uniformity of a set of points given by the user.
+	 *
+	 * @param coordinates,    the coordinates of the points: the j-th coordinate of the i-th point is
+	 *                        coordinates[j * numberOfPoints + i]. The array is not copied, and it is not
+	 *                        modified.
+	 * @param numberOfPoints, the number of points
+	 * @param dimension,      the dimension of the points
+	 */
+	public DiscrepancyMultiDimension(double[] coordinates, int numberOfPoints, int dimension) {
+		if (numberOfPoints < 1 || dimension < 1) {
+			throw new IllegalArgumentException("The number of points and the dimension must be positive.");
+		}
+		if (coordinates.length < (long) numberOfPoints * dimension) {
+			throw new IllegalArgumentException("The array of the coordinates is too short.");
+		}
+		this.coordinates = coordinates;
+		this.numberOfPoints = numberOfPoints;
+		this.dimension = dimension;
+	}
+
+	/**
+	 * It constructs an object to evaluate the uniformity of the first numberOfPoints points of a sequence.
+	 *
+	 * @param sequence,       the sequence
+	 * @param numberOfPoints, the number of points
+	 */
+	public DiscrepancyMultiDimension(QuasiRandomSequenceInBlocks sequence, int numberOfPoints) {
+		this(getFirstPoints(sequence, numberOfPoints), numberOfPoints, sequence.getDimension());
+	}
+
+	private static double[] getFirstPoints(QuasiRandomSequenceInBlocks sequence, int numberOfPoints) {
+		double[] coordinates = new double[numberOfPoints * sequence.getDimension()];
+		sequence.fillBlock(0, numberOfPoints, coordinates);
+		return coordinates;
+	}
+
+	/**
+	 * It sets the number of threads used for the computations. The results are the same as the ones
+	 * obtained with one thread, whatever the number of threads.
+	 *
+	 * @param numberOfThreads, the number of threads
+	 */
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	/**
+	 * It computes and returns the L2 star discrepancy of the points, i.e., the square root of the
+	 * integral over y \in [0,1]^d of (A([0,y))/n - vol([0,y)))^2. It is computed by the formula of Warnock:
+	 * 3^{-d} - 2^{1-d}/n sum_i prod_j (1 - x_{ij}^2) + 1/n^2 sum_i sum_k prod_j (1 - max(x_{ij},x_{kj})).
+	 * The double sum is symmetric, so only the terms with i <= k are computed: the cost is n(n+1)/2 times
+	 * d operations, split among the threads.
+	 *
+	 * @return the L2 star discrepancy
+	 */
+	public double getL2StarDiscrepancy() {
+		/*
+		 * Every task computes the sum of prod_j (1 - x_{ij}^2) and of the terms of the double sum for
+		 * i in a range of numberOfPointsPerTask points. The partial sums are then added in the order of
+		 * the ranges, so that the result does not depend on the number of threads. The array of length
+		 * numberOfPoints used by the tasks for the products is allocated once per thread, not once per
+		 * task.
+		 */
+		double sumOfProducts = 0;
+		double doubleSumOfProducts = 0;
+		if (numberOfThreads > 1) {
+			ThreadLocal<double[]> productsOfThread = ThreadLocal.withInitial(() -> new double[numberOfPoints]);
+			ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+			try {
+				List<ForkJoinTask<double[]>> tasks = new ArrayList<>();
+				for (int firstPoint = 0; firstPoint < numberOfPoints; firstPoint += numberOfPointsPerTask) {
+					int firstIndex = firstPoint;// it must be effectively final to be used in the lambda
+					int lastIndex = Math.min(firstPoint + numberOfPointsPerTask, numberOfPoints);
+					tasks.add(pool.submit(() -> computeSumsOfProducts(firstIndex, lastIndex, productsOfThread.get())));
+				}
+				for (ForkJoinTask<double[]> task : tasks) {
+					double[] sums = task.join();
+					sumOfProducts += sums[0];
+					doubleSumOfProducts += sums[1];
+				}
+			} finally {
+				pool.shutdown();// also if a task throws an exception
+			}
+		} else {
+			double[] products = new double[numberOfPoints];// the same for all the ranges
+			for (int firstPoint = 0; firstPoint < numberOfPoints; firstPoint += numberOfPointsPerTask) {
+				double[] sums = computeSumsOfProducts(firstPoint,
+						Math.min(firstPoint + numberOfPointsPerTask, numberOfPoints), products);
+				sumOfProducts += sums[0];
+				doubleSumOfProducts += sums[1];
+			}
+		}
+		double squaredDiscrepancy = Math.pow(3.0, -dimension)
+				- Math.pow(2.0, 1 - dimension) * sumOfProducts / numberOfPoints
+				+ doubleSumOfProducts / ((double) numberOfPoints * numberOfPoints);
+		// it can be slightly negative because of rounding, if the points are very uniform
+		return Math.sqrt(Math.max(squaredDiscrepancy, 0));
+	}
+
+	/*
+	 * It returns the sums over i from firstPointIndex (included) to lastPointIndex (excluded) of
+	 * prod_j (1 - x_{ij}^2) and of prod_j (1 - x_{ij}) + 2 sum_{k > i} prod_j (1 - max(x_{ij},x_{kj})).
+	 * For every i, the products over k are computed coordinate by coordinate, so that the coordinates
+	 * of the points k are read one after the other, and stored in the entries k >= i of products, which
+	 * are overwritten: its content when the method is called is not used.
+	 */
+	private double[] computeSumsOfProducts(int firstPointIndex, int lastPointIndex, double[] products) {
+		double sumOfProducts = 0;
+		double doubleSumOfProducts = 0;
+		for (int i = firstPointIndex; i < lastPointIndex; i++) {
+			double productOfSquares = 1;
+			for (int k = i; k < numberOfPoints; k++) {
+				products[k] = 1;
+			}
+			for (int j = 0; j < dimension; j++) {
+				int offset = j * numberOfPoints;
+				double coordinate = coordinates[offset + i];
+				productOfSquares *= 1 - coordinate * coordinate;
+				// k = i gives 1 - x_{ij}
+				for (int k = i; k < numberOfPoints; k++) {
+					products[k] *= 1 - Math.max(coordinate, coordinates[offset + k]);
+				}
+			}
+			double sumOverOtherPoints = 0;
+			for (int k = i + 1; k < numberOfPoints; k++) {
+				sumOverOtherPoints += products[k];
+			}
+			sumOfProducts += productOfSquares;
+			doubleSumOfProducts += products[i] + 2 * sumOverOtherPoints;
+		}
+		return new double[] { sumOfProducts, doubleSumOfProducts };
+	}
+
+	/**
+	 * It returns a lower bound of the star discrepancy of the points, given by the maximum of the local
+	 * discrepancy over randomly chosen boxes [0,y]. Every coordinate y_j is chosen uniformly among the
+	 * j-th coordinates of the points and 1, since the supremum is attained at such "critical" boxes. Two
+	 * values are then checked for every box:
+	 * - the number of points in the closed box [0,y] divided by n, minus the volume of the box obtained
+	 * by shrinking every y_j to the biggest j-th coordinate of the points in [0,y], which has the same
+	 * points and a smaller volume;
+	 * - the volume of the box obtained by growing every y_j, one after the other, as long as no new
+	 * point enters the open box [0,y), minus the number of points in [0,y) divided by n.
+	 * Every box costs O(n d) operations. The boxes are checked in parallel, by tasks with their own
+	 * random generators, whose seeds are drawn in order by a generator with the given seed: then, the
+	 * result depends only on the seed and on the number of boxes.
+	 *
+	 * @param numberOfBoxes, the number of random boxes to be checked
+	 * @param seed,          the seed from which the boxes are generated
+	 * @return a lower bound of the star discrepancy
+	 */
+	public double getStarDiscrepancyLowerBound(int numberOfBoxes, long seed) {
+		SplittableRandom seedGenerator = new SplittableRandom(seed);
+		double lowerBound = 0;
+		if (numberOfThreads > 1) {
+			ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+			try {
+				List<ForkJoinTask<Double>> tasks = new ArrayList<>();
+				for (int firstBox = 0; firstBox < numberOfBoxes; firstBox += numberOfBoxesPerTask) {
+					int numberOfBoxesOfTask = Math.min(numberOfBoxesPerTask, numberOfBoxes - firstBox);
+					long seedOfTask = seedGenerator.nextLong();
+					tasks.add(pool.submit(() -> getMaximumLocalDiscrepancy(numberOfBoxesOfTask, seedOfTask)));
+				}
+				for (ForkJoinTask<Double> task : tasks) {
+					lowerBound = Math.max(lowerBound, task.join());
+				}
+			} finally {
+				pool.shutdown();// also if a task throws an exception
+			}
+		} else {
+			for (int firstBox = 0; firstBox < numberOfBoxes; firstBox += numberOfBoxesPerTask) {
+				int numberOfBoxesOfTask = Math.min(numberOfBoxesPerTask, numberOfBoxes - firstBox);
+				lowerBound = Math.max(lowerBound,
+						getMaximumLocalDiscrepancy(numberOfBoxesOfTask, seedGenerator.nextLong()));
+			}
+		}
+		return lowerBound;
+	}
+
+	/*
+	 * It returns the maximum of the two values described in the documentation of
+	 * getStarDiscrepancyLowerBound, over numberOfBoxes random boxes generated from the given seed.
+	 */
+	private double getMaximumLocalDiscrepancy(int numberOfBoxes, long seed) {
+		SplittableRandom randomGenerator = new SplittableRandom(seed);
+		double[] corner = new double[dimension];
+		double[] shrunkCorner = new double[dimension];
+		// for every point, the number of coordinates j such that x_{ij} >= y_j, i.e., outside [0,y)
+		int[] numberOfCoordinatesOutside = new int[numberOfPoints];
+		double maximumLocalDiscrepancy = 0;
+		for (int box = 0; box < numberOfBoxes; box++) {
+			for (int j = 0; j < dimension; j++) {
+				int pointIndex = randomGenerator.nextInt(numberOfPoints + 1);
+				corner[j] = pointIndex == numberOfPoints ? 1 : coordinates[j * numberOfPoints + pointIndex];
+			}
+
+			// closed box [0,y], shrunk to the points inside it
+			int numberOfPointsInClosedBox = 0;
+			for (int j = 0; j < dimension; j++) {
+				shrunkCorner[j] = 0;
+			}
+			for (int i = 0; i < numberOfPoints; i++) {
+				boolean isInside = true;
+				for (int j = 0; j < dimension && isInside; j++) {
+					isInside = coordinates[j * numberOfPoints + i] <= corner[j];
+				}
+				if (isInside) {
+					numberOfPointsInClosedBox++;
+					for (int j = 0; j < dimension; j++) {
+						shrunkCorner[j] = Math.max(shrunkCorner[j], coordinates[j * numberOfPoints + i]);
+					}
+				}
+			}
+			double volumeOfShrunkBox = 1;
+			for (int j = 0; j < dimension; j++) {
+				volumeOfShrunkBox *= shrunkCorner[j];
+			}
+			maximumLocalDiscrepancy = Math.max(maximumLocalDiscrepancy,
+					(double) numberOfPointsInClosedBox / numberOfPoints - volumeOfShrunkBox);
+
+			// open box [0,y), grown one coordinate after the other
+			int numberOfPointsInOpenBox = 0;
+			for (int i = 0; i < numberOfPoints; i++) {
+				numberOfCoordinatesOutside[i] = 0;
+			}
+			for (int j = 0; j < dimension; j++) {
+				int offset = j * numberOfPoints;
+				for (int i = 0; i < numberOfPoints; i++) {
+					numberOfCoordinatesOutside[i] += coordinates[offset + i] >= corner[j] ? 1 : 0;
+				}
+			}
+			for (int j = 0; j < dimension; j++) {
+				int offset = j * numberOfPoints;
+				/*
+				 * y_j can grow up to the smallest j-th coordinate of the points which are outside [0,y)
+				 * only because of the j-th coordinate, or up to 1 if there are none.
+				 */
+				double grownCoordinate = 1;
+				for (int i = 0; i < numberOfPoints; i++) {
+					if (numberOfCoordinatesOutside[i] == 1 && coordinates[offset + i] >= corner[j]) {
+						grownCoordinate = Math.min(grownCoordinate, coordinates[offset + i]);
+					}
+				}
+				// the points with x_{ij} in [y_j, grownCoordinate) are now inside as far as j is concerned
+				for (int i = 0; i < numberOfPoints; i++) {
+					double coordinate = coordinates[offset + i];
+					if (coordinate >= corner[j] && coordinate < grownCoordinate) {
+						numberOfCoordinatesOutside[i]--;
+					}
+				}
+				corner[j] = grownCoordinate;
+			}
+			double volumeOfGrownBox = 1;
+			for (int j = 0; j < dimension; j++) {
+				volumeOfGrownBox *= corner[j];
+			}
+			for (int i = 0; i < numberOfPoints; i++) {
+				numberOfPointsInOpenBox += numberOfCoordinatesOutside[i] == 0 ? 1 : 0;
+			}
+			maximumLocalDiscrepancy = Math.max(maximumLocalDiscrepancy,
+					volumeOfGrownBox - (double) numberOfPointsInOpenBox / numberOfPoints);
+		}
+		return maximumLocalDiscrepancy;
+	}
+}
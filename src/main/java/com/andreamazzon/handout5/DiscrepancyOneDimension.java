@@ -6,7 +6,9 @@ import java.util.Arrays;
  * This class is devoted to the computation of the discrepancy and of the star
  * discrepancy of a set of points in one dimension. The points of the set are
  * given as a one-dimensional array, which is not supposed to be already sorted
- * when passed to the argument list of the methods.
+ * when passed to the argument list of the methods. The methods getDiscrepancy
+ * and getStarDiscrepancy sort it in place, whereas
+ * getStarDiscrepancyAndDiscrepancy sorts a copy and leaves it untouched.
  *
  * @author Andrea Mazzon
  *
@@ -14,7 +16,112 @@ import java.util.Arrays;
 public class DiscrepancyOneDimension {
 
 	/**
-	 * It computes and return the discrepancy of a set of points in one dimension.
+	 * It computes and returns the discrepancy of a set of points in one dimension,
+	 * with the same result (up to rounding) as getDiscrepancyCheckingAllIntervals
+	 * but with a cost which is linear in the number of points after sorting: see
+	 * getStarDiscrepancyAndDiscrepancy.
+	 *
+	 * @param set, a one-dimensional array giving the points of the set whose
+	 *             discrepancy must be computed. It is not supposed to be already
+	 *             sorted when passed in the argument list, so it must be sorted at
+	 *             the beginning by the Java method Arrays.sort.
+	 */
+	public static double getDiscrepancy(double[] set) {
+		Arrays.sort(set); // Java method to sort the set
+		return getStarDiscrepancyAndDiscrepancyOfSortedSet(set, set.length)[1];
+	}
+
+	/**
+	 * It computes and returns the star discrepancy and the discrepancy of a set of
+	 * points in one dimension, leaving the array of the points untouched. The
+	 * points are sorted only once, in a copy, and both the discrepancies are then
+	 * computed in a single pass through the sorted points. The copy has the same
+	 * length as the set: if the discrepancy has to be computed for many big sets,
+	 * the method with an array given by the user, which can be reused, should be
+	 * preferred.
+	 *
+	 * @param set, a one-dimensional array giving the points of the set, not
+	 *             necessarily sorted. It is not modified.
+	 * @return an array whose first element is the star discrepancy and whose
+	 *         second element is the discrepancy of the set
+	 */
+	public static double[] getStarDiscrepancyAndDiscrepancy(double[] set) {
+		return getStarDiscrepancyAndDiscrepancy(set, new double[set.length]);
+	}
+
+	/**
+	 * It computes and returns the star discrepancy and the discrepancy of a set of
+	 * points in one dimension, leaving the array of the points untouched. The
+	 * points are copied into the first set.length elements of sortedSet and
+	 * sorted there by Arrays.parallelSort, which runs on the threads of the common
+	 * ForkJoinPool for big sets and as Arrays.sort for small ones. Both the
+	 * discrepancies are then computed in a single pass through the sorted points.
+	 * Calling x_0 <= ... <= x_{n-1} the sorted points and A_i = x_i - i/n, the
+	 * value given by the interval [x_p,x_q], p < q, in the definition of
+	 * discrepancy is max(A_q - A_p, A_p - A_q) + 1/n, and the one given by the
+	 * interval [x_p,1] is 1/n - A_p. So the maximum over all the intervals is
+	 * max_i A_i - min_i A_i + 1/n, compared with the star discrepancy and, if
+	 * x_{n-1} is not 1, with 1/n - min_{i < n-1} A_i.
+	 *
+	 * @param set,       a one-dimensional array giving the points of the set, not
+	 *                   necessarily sorted. It is not modified.
+	 * @param sortedSet, an array of length at least set.length, where the points
+	 *                   are sorted. It can be reused for different sets.
+	 * @return an array whose first element is the star discrepancy and whose
+	 *         second element is the discrepancy of the set
+	 */
+	public static double[] getStarDiscrepancyAndDiscrepancy(double[] set, double[] sortedSet) {
+		int totalNumberOfPoints = set.length;
+		if (sortedSet.length < totalNumberOfPoints) {
+			throw new IllegalArgumentException("The array where the points are sorted is shorter than the set.");
+		}
+		System.arraycopy(set, 0, sortedSet, 0, totalNumberOfPoints);
+		Arrays.parallelSort(sortedSet, 0, totalNumberOfPoints);
+		return getStarDiscrepancyAndDiscrepancyOfSortedSet(sortedSet, totalNumberOfPoints);
+	}
+
+	/*
+	 * Star discrepancy and discrepancy of the first totalNumberOfPoints elements of sortedSet, which
+	 * are sorted. The star discrepancy is computed as in getStarDiscrepancy, the discrepancy as
+	 * explained in the documentation of getStarDiscrepancyAndDiscrepancy.
+	 */
+	private static double[] getStarDiscrepancyAndDiscrepancyOfSortedSet(double[] sortedSet, int totalNumberOfPoints) {
+		double starDiscrepancy = 0;
+		double maximumDeviation = Double.NEGATIVE_INFINITY;
+		double minimumDeviation = Double.POSITIVE_INFINITY;
+		// if the first point is zero, the star discrepancy is checked from the second one
+		int firstPosition = (sortedSet[0] != 0) ? 0 : 1;
+		double discrepancy = 0;
+		for (int index = 0; index < totalNumberOfPoints; index++) {
+			// A_i = x_i - i/n is also the first value checked for the star discrepancy
+			double deviation = sortedSet[index] - (double) index / totalNumberOfPoints;
+			if (index >= firstPosition) {
+				starDiscrepancy = Math.max(starDiscrepancy,
+						Math.max(deviation, (index + 1.0) / totalNumberOfPoints - sortedSet[index]));
+			}
+			if (index == totalNumberOfPoints - 1 && index > 0 && sortedSet[index] != 1) {
+				/*
+				 * Intervals [x_p,1], p < n - 1: the last point is not a left end (see "Remark
+				 * about exercise 2.pdf"), so we check them before it enters the minimum.
+				 */
+				discrepancy = 1.0 / totalNumberOfPoints - minimumDeviation;
+			}
+			maximumDeviation = Math.max(maximumDeviation, deviation);
+			minimumDeviation = Math.min(minimumDeviation, deviation);
+		}
+		discrepancy = Math.max(discrepancy, starDiscrepancy);
+		if (totalNumberOfPoints > 1) {
+			// intervals [x_p,x_q], p < q
+			discrepancy = Math.max(discrepancy, maximumDeviation - minimumDeviation + 1.0 / totalNumberOfPoints);
+		}
+		return new double[] { starDiscrepancy, discrepancy };
+	}
+
+	/**
+	 * It computes and return the discrepancy of a set of points in one dimension,
+	 * checking all the intervals whose ends are in the set: the cost is then
+	 * quadratic in the number of points. It gives the same result as
+	 * getDiscrepancy, and it is kept because it follows directly the definition.
 	 * In particular, the discrepancy of the one-dimensional set is computed as
 	 * max_{a \in set} (max_{b \in set} max(|{x_i \in [a,b]}|/n - (b-a), (b-a)-|{x_i in (a,b)}|/n)),
 	 * where set is the one-dimensional array of the points of the
@@ -28,7 +135,7 @@ public class DiscrepancyOneDimension {
 	 *             sorted when passed in the argument list, so it must be sorted at
 	 *             the beginning by the Java method Arrays.sort.
 	 */
-	public static double getDiscrepancy(double[] set) {
+	public static double getDiscrepancyCheckingAllIntervals(double[] set) {
 		Arrays.sort(set); // Java method to sort the set
 		int totalNumberOfPoints = set.length;
 		/*
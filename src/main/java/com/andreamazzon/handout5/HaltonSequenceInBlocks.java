@@ -0,0 +1,71 @@
+package com.andreamazzon.handout5;
+
+/**
+ * This class generates the points of an Halton sequence in blocks, writing their coordinates in a
+ * flat array given by the user, which can be reused for all the blocks. Since every element of the
+ * sequence is computed from its index (as the radical inverse of the index in the given base), a
+ * block can start from any index: in this way, disjoint ranges of indices can be given to different
+ * threads. The points are the same as the ones given by net.finmath.randomnumbers.HaltonSequence:
+ * the point of index i is the one returned by the (i+1)-th call of getNext(). An object of this class
+ * has no state apart from the base, so it can be used by different threads at the same time.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class HaltonSequenceInBlocks implements QuasiRandomSequenceInBlocks {
+
+	private final int[] base;
+
+	/**
+	 * It constructs an object which generates the points of the Halton sequence in the given base.
+	 *
+	 * @param base, a vector of integers bigger than one representing the base of the Halton
+	 *              sequence. Its length is the dimension of the points.
+	 */
+	public HaltonSequenceInBlocks(int[] base) {
+		for (int b : base) {
+			if (b <= 1) {
+				throw new IllegalArgumentException("The elements of the base must be bigger than one.");
+			}
+		}
+		this.base = base.clone();
+	}
+
+	// the dimension of the points is the length of the base
+	@Override
+	public int getDimension() {
+		return base.length;
+	}
+
+	/**
+	 * It returns the element of index index of the one-dimensional Halton sequence in base base, i.e.,
+	 * the radical inverse of index + 1 in base base. The digits are summed in the same order as in
+	 * net.finmath.randomnumbers.HaltonSequence, so that the results are exactly the same.
+	 *
+	 * @param index, the index of the element, starting from zero
+	 * @param base,  the base, bigger than one
+	 * @return the element of the Halton sequence
+	 */
+	public static double getHaltonNumber(long index, int base) {
+		long remainingDigits = index + 1;
+		double haltonNumber = 0;
+		double factor = 1.0 / base;
+		while (remainingDigits > 0) {
+			haltonNumber += (remainingDigits % base) * factor;
+			factor /= base;
+			remainingDigits /= base;
+		}
+		return haltonNumber;
+	}
+
+	// The Javadoc documentation is given in the interface. No array is allocated
+	@Override
+	public void fillBlock(long firstIndex, int numberOfPoints, double[] coordinates) {
+		for (int j = 0; j < base.length; j++) {
+			int offset = j * numberOfPoints;
+			for (int i = 0; i < numberOfPoints; i++) {
+				coordinates[offset + i] = getHaltonNumber(firstIndex + i, base[j]);
+			}
+		}
+	}
+}
@@ -1,11 +1,18 @@
 package com.andreamazzon.handout5;
 
-import net.finmath.randomnumbers.HaltonSequence;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.andreamazzon.handout4.UnitHypersphere;
 
 /**
  * This class deals with the approximation of Pi from the approximation of the volume of a unit hypersphere
  * in d dimensions by the integration of the indicator \[ 1_{\{x_1^2+x_2^+...+x_d^2 <= 1\}\].
- * The points (x_1^i,\dots,x_d^i), i=1,..,d are sampled by an Halton sequence.
+ * The points (x_1^i,\dots,x_d^i), i=1,..,d are sampled by an Halton sequence. They are generated in
+ * blocks by an object of type HaltonSequenceInBlocks, and disjoint ranges of points can be checked in
+ * parallel (see setNumberOfThreads), with the same result as when they are checked by one thread.
  *
  * @author Andrea Mazzon
  *
@@ -14,7 +21,16 @@ public class PiFromHypersphereWithHaltonSequence {
 
 	private final int dimension;
 	private final int numberOfSamplePoints;
-	private final HaltonSequence haltonSequence;
+	private final HaltonSequenceInBlocks haltonSequence;
+
+	// the number of points whose coordinates are generated together
+	private static final int numberOfPointsPerBlock = 256;
+
+	/*
+	 * The number of threads used to check the points: if it is bigger than one, the points are split
+	 * in ranges of indices which are checked in parallel. It can be set by setNumberOfThreads.
+	 */
+	private int numberOfThreads = 1;
 
 	/**
 	 * It constructs an object of the class in order to approximate pi from the
@@ -34,35 +50,28 @@ public class PiFromHypersphereWithHaltonSequence {
 		// dimension of the hypersphere, and then of the Halton sequence (and of its base)
 		this.dimension = base.length;
 		// no lazy implementation here: we immediately generate it
-		this.haltonSequence = new HaltonSequence(base);
+		this.haltonSequence = new HaltonSequenceInBlocks(base);
 	}
 
-	/*
-	 * Used in order to compute the approximation of pi from the one of the volume of
-	 * the unit hypersphere
+	/**
+	 * It sets the number of threads used to check which points of the Halton sequence are inside the
+	 * hypersphere. The result is the same as the one obtained with one thread, whatever the number
+	 * of threads.
+	 *
+	 * @param numberOfThreads, the number of threads
 	 */
-	private static int factorial(int n) {
-		if (n < 1) {
-			return 1; // note: return already exits the method. No need for else
-		}
-		return n * factorial(n - 1);
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
 	}
 
 	/*
 	 * Here we suppose to have (the approximated) volume, and we compute the value
 	 * of pi inverting the formulas V_{2k} = pi^k/k!, V_{2k+1}=2(4*pi)^k*k!/(2k+1)!,
-	 * where V_n is the volume of the unit hypersphere in n dimensions.
+	 * where V_n is the volume of the unit hypersphere in n dimensions. The
+	 * factorials are not computed: see UnitHypersphere.
 	 */
 	private double computePiFromVolume(double volume) {
-		double approximatedPi; // only definition here, initialization in the if/else loop
-		if (dimension % 2 == 0) { // V_{2k} = pi^k/k! --> pi = (V_{2k}*k!)^(1/k)
-			int k = dimension / 2;
-			approximatedPi = Math.pow(volume * factorial(k), 1.0 / k);
-		} else {// V_{2k+1}=2(4*pi)^k*k!/(2k+1)! ---> pi = 1/4*(V_{2k+1}*(2k+1)!/(2k!))^(1/k)
-			int k = (dimension - 1) / 2;
-			approximatedPi = Math.pow(volume * factorial(dimension) / (2.0 * factorial(k)), 1.0 / k) / 4.0;
-		}
-		return approximatedPi;
+		return UnitHypersphere.getPiFromVolume(volume, dimension);
 	}
 
 	/**
@@ -71,31 +80,73 @@ public class PiFromHypersphereWithHaltonSequence {
 	 * it is equal to 2^d times the fraction of random, independent numbers
 	 * (x_1,..,x_d) uniformly distributed between 0 and 1, such that
 	 * (2*(x_1-0.5))^2+...+(2*(x_d-0.5))^2<=1. Here the points (x_1,..,x_d) are
-	 * generated using an Halton sequence.
+	 * the first numberOfSamplePoints points of an Halton sequence, so the result
+	 * is the same at every call.
 	 *
 	 * @return the approximation of pi.
 	 */
 	public double piHalton() {
-		int numberOfPointsInsideHypersphere = 0;
-		for (int i = 0; i < numberOfSamplePoints; i++) {
-			/*
-			 * at every iteration, get (x_1,...,x_d) from the Halton sequence and compute
-			 * (2*(x_1-0.5))^2+...+(2*(x_d-0.5))^2
-			 */
-			final double[] newPoint = haltonSequence.getNext();// i-th element of the Halton Sequence
-			double sumOfSquares = 0;
-			for (int j = 0; j < dimension; j++) {
-				sumOfSquares += 2 * (newPoint[j] - 0.5) * 2 * (newPoint[j] - 0.5);
-			}
-			if (sumOfSquares <= 1) {
-				numberOfPointsInsideHypersphere += 1;
+		long numberOfPointsInsideHypersphere;
+		if (numberOfThreads > 1) {
+			// one range of indices per thread: the points are all checked in the same time
+			int rangeSize = (numberOfSamplePoints + numberOfThreads - 1) / numberOfThreads;// rounded up
+
+			ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+			try {
+				List<ForkJoinTask<Long>> ranges = new ArrayList<>();
+				for (int firstPointIndex = 0; firstPointIndex < numberOfSamplePoints; firstPointIndex += rangeSize) {
+					int firstIndex = firstPointIndex;// it must be effectively final to be used in the lambda
+					int lastIndex = Math.min(firstPointIndex + rangeSize, numberOfSamplePoints);
+					ranges.add(pool.submit(() -> countPointsInsideHypersphere(firstIndex, lastIndex)));
+				}
+				numberOfPointsInsideHypersphere = 0;
+				for (ForkJoinTask<Long> range : ranges) {
+					numberOfPointsInsideHypersphere += range.join();// integers: the order of the sum does not matter
+				}
+			} finally {
+				pool.shutdown();// also if a range throws an exception
 			}
+		} else {
+			numberOfPointsInsideHypersphere = countPointsInsideHypersphere(0, numberOfSamplePoints);
 		}
 		final double volumeApproximation = Math.pow(2.0, dimension) * numberOfPointsInsideHypersphere
 				/ numberOfSamplePoints;
 		return computePiFromVolume(volumeApproximation);
 	}
 
+	/*
+	 * It returns the number of points of the Halton sequence with indices from firstPointIndex
+	 * (included) to lastPointIndex (excluded) which are inside the hypersphere. The points are
+	 * generated in blocks, in an array which is used for all the blocks.
+	 */
+	private long countPointsInsideHypersphere(long firstPointIndex, long lastPointIndex) {
+		double[] coordinates = new double[numberOfPointsPerBlock * dimension];
+		double[] sumsOfSquares = new double[numberOfPointsPerBlock];
+
+		long numberOfPointsInsideHypersphere = 0;
+		for (long firstIndexOfBlock = firstPointIndex; firstIndexOfBlock < lastPointIndex; firstIndexOfBlock += numberOfPointsPerBlock) {
+			int numberOfPointsOfBlock = (int) Math.min(numberOfPointsPerBlock, lastPointIndex - firstIndexOfBlock);
+			// coordinates[j * numberOfPointsOfBlock + i]: j-th coordinate of the i-th point of the block
+			haltonSequence.fillBlock(firstIndexOfBlock, numberOfPointsOfBlock, coordinates);
+
+			// (2*(x_1-0.5))^2+...+(2*(x_d-0.5))^2 for all the points, adding one coordinate at a time
+			for (int i = 0; i < numberOfPointsOfBlock; i++) {
+				sumsOfSquares[i] = 0;
+			}
+			for (int j = 0; j < dimension; j++) {
+				int offset = j * numberOfPointsOfBlock;
+				for (int i = 0; i < numberOfPointsOfBlock; i++) {
+					double coordinate = coordinates[offset + i];
+					sumsOfSquares[i] += 2 * (coordinate - 0.5) * 2 * (coordinate - 0.5);
+				}
+			}
+			for (int i = 0; i < numberOfPointsOfBlock; i++) {
+				numberOfPointsInsideHypersphere += sumsOfSquares[i] <= 1 ? 1 : 0;
+			}
+		}
+		return numberOfPointsInsideHypersphere;
+	}
+
 	/**
 	 * It returns the error of the approximation of pi from the volume of a unit
 	 * hypersphere of dimension d. You approximate this volume as 2^d times the
@@ -0,0 +1,29 @@
+package com.andreamazzon.handout5;
+
+/**
+ * Interface for sequences of points in [0,1)^d whose elements can be computed from their index, and
+ * can then be generated in blocks starting from any index. The coordinates of a block are written in
+ * a flat array given by the user, coordinate by coordinate.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public interface QuasiRandomSequenceInBlocks {
+
+	/**
+	 * @return the dimension d of the points
+	 */
+	int getDimension();
+
+	/**
+	 * It writes the coordinates of the points of indices firstIndex,...,firstIndex + numberOfPoints - 1
+	 * in coordinates, coordinate by coordinate: the j-th coordinate of the point of index firstIndex + i
+	 * is written in coordinates[j * numberOfPoints + i].
+	 *
+	 * @param firstIndex,     the index of the first point, starting from zero
+	 * @param numberOfPoints, the number of points to be written
+	 * @param coordinates,    the array where the coordinates are written. Its length must be at least
+	 *                        numberOfPoints times the dimension.
+	 */
+	void fillBlock(long firstIndex, int numberOfPoints, double[] coordinates);
+}
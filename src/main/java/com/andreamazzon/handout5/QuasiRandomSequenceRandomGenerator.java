@@ -0,0 +1,69 @@
+package com.andreamazzon.handout5;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * This class gives the coordinates of the points of a QuasiRandomSequenceInBlocks one by one as a
+ * java.util.random.RandomGenerator: nextDouble() returns the coordinates of the point of the given first
+ * index, then the ones of the next point, and so on. In this way, a random variable of handout6 or
+ * handout7 can be generated from a low discrepancy sequence instead of pseudo random numbers: for a
+ * one-dimensional sequence the realizations are obtained from the points of the sequence, and for a
+ * sequence of dimension d every point gives d realizations, for example a pair of realizations for
+ * generateBivariate() if d = 2. The points are generated in blocks by fillBlock. Note that the point of
+ * index 0 of the Sobol sequence is the origin, whose quantile is minus infinity for random variables
+ * with values in the whole real line: the first index should then be 1. An object of this class is not
+ * thread safe.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class QuasiRandomSequenceRandomGenerator implements RandomGenerator {
+
+	// the number of points generated together by fillBlock
+	private static final int numberOfPointsPerBlock = 256;
+
+	private final QuasiRandomSequenceInBlocks sequence;
+	private final int dimension;
+
+	// the coordinates of a block of points, coordinate by coordinate as written by fillBlock
+	private final double[] coordinatesOfBlock;
+
+	private long indexOfNextBlock;// the index of the first point of the next block
+	private int indexInBlock = numberOfPointsPerBlock;// the block is filled at the first call
+	private int coordinateIndex;// the coordinate of the point which is returned next
+
+	/**
+	 * It constructs an object which gives the coordinates of the points of the sequence, starting from
+	 * the point of the given index.
+	 *
+	 * @param sequence,   the sequence whose points are given
+	 * @param firstIndex, the index of the first point
+	 */
+	public QuasiRandomSequenceRandomGenerator(QuasiRandomSequenceInBlocks sequence, long firstIndex) {
+		this.sequence = sequence;
+		dimension = sequence.getDimension();
+		coordinatesOfBlock = new double[numberOfPointsPerBlock * dimension];
+		indexOfNextBlock = firstIndex;
+	}
+
+	@Override
+	public double nextDouble() {
+		if (indexInBlock == numberOfPointsPerBlock) {
+			sequence.fillBlock(indexOfNextBlock, numberOfPointsPerBlock, coordinatesOfBlock);
+			indexOfNextBlock += numberOfPointsPerBlock;
+			indexInBlock = 0;
+		}
+		double coordinate = coordinatesOfBlock[coordinateIndex * numberOfPointsPerBlock + indexInBlock];
+		if (++coordinateIndex == dimension) {
+			coordinateIndex = 0;
+			indexInBlock++;
+		}
+		return coordinate;
+	}
+
+	// the first 53 bits of the next coordinate: the bits of the points are not independent
+	@Override
+	public long nextLong() {
+		return (long) (nextDouble() * 0x1p53) << 11;
+	}
+}
@@ -0,0 +1,125 @@
+package com.andreamazzon.handout5;
+
+import java.util.SplittableRandom;
+import java.util.function.LongFunction;
+import java.util.function.ToDoubleFunction;
+
+import com.andreamazzon.usefulmethodsmatricesandvectors.OnlineStatistics;
+
+/**
+ * This class approximates the integral of a function over [0,1]^d by randomized quasi Monte-Carlo:
+ * the integral is approximated by the average of the function over the first points of a
+ * quasi-random sequence which is randomized independently several times (for example, by a random
+ * shift, by scrambling or by a random digital shift), giving independent replicates of the
+ * approximation. Every replicate is an unbiased estimator of the integral, so the average of the
+ * replicates is the approximation and their standard deviation divided by the square root of their
+ * number is an estimate of its standard error, which does not need the exact value of the integral.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class RandomizedQuasiMonteCarloIntegration {
+
+	// the number of points whose coordinates are generated together
+	private static final int numberOfPointsPerBlock = 256;
+
+	private final LongFunction<QuasiRandomSequenceInBlocks> randomizedSequenceFactory;
+	private final ToDoubleFunction<double[]> integrand;
+	private final int numberOfPointsPerReplicate;
+	private final int numberOfReplicates;
+	private final long seed;
+
+	// the approximations of the integral given by the replicates, and their statistics
+	private double[] replicates;
+	private OnlineStatistics statisticsOfReplicates;
+
+	/**
+	 * It constructs an object to approximate the integral of a function over [0,1]^d by randomized
+	 * quasi Monte-Carlo.
+	 *
+	 * @param randomizedSequenceFactory,  it constructs a randomization of the quasi-random sequence
+	 *                                    from a seed, for example seed -> new SobolSequenceInBlocks(d, seed)
+	 * @param integrand,                  the function to be integrated. It is given the coordinates of
+	 *                                    a point in an array which is reused for all the points
+	 * @param numberOfPointsPerReplicate, the number of points of the sequence used by every replicate
+	 * @param numberOfReplicates,         the number of independent randomizations of the sequence
+	 * @param seed,                       the seed of the generator from which the seeds of the
+	 *                                    randomizations are drawn
+	 */
+	public RandomizedQuasiMonteCarloIntegration(LongFunction<QuasiRandomSequenceInBlocks> randomizedSequenceFactory,
+			ToDoubleFunction<double[]> integrand, int numberOfPointsPerReplicate, int numberOfReplicates, long seed) {
+		this.randomizedSequenceFactory = randomizedSequenceFactory;
+		this.integrand = integrand;
+		this.numberOfPointsPerReplicate = numberOfPointsPerReplicate;
+		this.numberOfReplicates = numberOfReplicates;
+		this.seed = seed;
+	}
+
+	// it computes the replicates, only the first time they are needed
+	private void computeReplicates() {
+		SplittableRandom generatorOfSeeds = new SplittableRandom(seed);
+		replicates = new double[numberOfReplicates];
+		statisticsOfReplicates = new OnlineStatistics();
+		for (int r = 0; r < numberOfReplicates; r++) {
+			replicates[r] = getAverageOverSequence(randomizedSequenceFactory.apply(generatorOfSeeds.nextLong()));
+			statisticsOfReplicates.add(replicates[r]);
+		}
+	}
+
+	// the average of the integrand over the first numberOfPointsPerReplicate points of sequence
+	private double getAverageOverSequence(QuasiRandomSequenceInBlocks sequence) {
+		int dimension = sequence.getDimension();
+		double[] coordinates = new double[numberOfPointsPerBlock * dimension];
+		double[] point = new double[dimension];
+
+		OnlineStatistics valuesOfIntegrand = new OnlineStatistics();
+		for (long firstIndexOfBlock = 0; firstIndexOfBlock < numberOfPointsPerReplicate; firstIndexOfBlock += numberOfPointsPerBlock) {
+			int numberOfPointsOfBlock = (int) Math.min(numberOfPointsPerBlock, numberOfPointsPerReplicate - firstIndexOfBlock);
+			sequence.fillBlock(firstIndexOfBlock, numberOfPointsOfBlock, coordinates);
+			for (int i = 0; i < numberOfPointsOfBlock; i++) {
+				for (int j = 0; j < dimension; j++) {
+					point[j] = coordinates[j * numberOfPointsOfBlock + i];
+				}
+				valuesOfIntegrand.add(integrand.applyAsDouble(point));
+			}
+		}
+		return valuesOfIntegrand.getAverage();
+	}
+
+	/**
+	 * It returns the approximations of the integral given by the independent replicates.
+	 *
+	 * @return the approximations given by the replicates
+	 */
+	public double[] getReplicates() {
+		if (replicates == null) {
+			computeReplicates();
+		}
+		return replicates.clone();
+	}
+
+	/**
+	 * It returns the approximation of the integral, i.e., the average of the replicates.
+	 *
+	 * @return the approximation of the integral
+	 */
+	public double getIntegral() {
+		if (replicates == null) {
+			computeReplicates();
+		}
+		return statisticsOfReplicates.getAverage();
+	}
+
+	/**
+	 * It returns the estimate of the standard error of the approximation of the integral, i.e., the
+	 * standard deviation of the replicates divided by the square root of their number.
+	 *
+	 * @return the estimated standard error of the approximation
+	 */
+	public double getStandardError() {
+		if (replicates == null) {
+			computeReplicates();
+		}
+		return statisticsOfReplicates.getStandardDeviation() / Math.sqrt(numberOfReplicates);
+	}
+}
@@ -0,0 +1,53 @@
+package com.andreamazzon.handout5;
+
+import java.util.SplittableRandom;
+
+/**
+ * This class randomizes a QuasiRandomSequenceInBlocks by a random shift modulo one (the method of
+ * Cranley and Patterson): a random vector U uniformly distributed in [0,1)^d is drawn once, and every
+ * point x of the sequence is replaced by the fractional part of x + U. Every shifted point is then
+ * uniformly distributed in [0,1)^d, so the average of an integrand over the shifted points is an
+ * unbiased estimator of its integral. Different seeds give independent shifts of the same sequence.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class RandomlyShiftedSequenceInBlocks implements QuasiRandomSequenceInBlocks {
+
+	private final QuasiRandomSequenceInBlocks sequence;
+	private final double[] shift;
+
+	/**
+	 * It constructs an object which generates the points of the given sequence shifted modulo one by
+	 * a random vector drawn by a generator with the given seed.
+	 *
+	 * @param sequence, the sequence to be shifted
+	 * @param seed,     the seed of the generator of the shift
+	 */
+	public RandomlyShiftedSequenceInBlocks(QuasiRandomSequenceInBlocks sequence, long seed) {
+		this.sequence = sequence;
+		SplittableRandom randomGenerator = new SplittableRandom(seed);
+		shift = new double[sequence.getDimension()];
+		for (int j = 0; j < shift.length; j++) {
+			shift[j] = randomGenerator.nextDouble();
+		}
+	}
+
+	@Override
+	public int getDimension() {
+		return sequence.getDimension();
+	}
+
+	// The Javadoc documentation is given in the interface
+	@Override
+	public void fillBlock(long firstIndex, int numberOfPoints, double[] coordinates) {
+		sequence.fillBlock(firstIndex, numberOfPoints, coordinates);
+		for (int j = 0; j < shift.length; j++) {
+			int offset = j * numberOfPoints;
+			for (int i = 0; i < numberOfPoints; i++) {
+				double shiftedCoordinate = coordinates[offset + i] + shift[j];
+				coordinates[offset + i] = shiftedCoordinate >= 1 ? shiftedCoordinate - 1 : shiftedCoordinate;
+			}
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package com.andreamazzon.handout5;
+
+import java.util.SplittableRandom;
+
+/**
+ * This class generates the points of an Halton sequence whose digits are scrambled by random
+ * permutations, as a QuasiRandomSequenceInBlocks. For every coordinate j and every digit position k,
+ * a random permutation of {0,...,b_j - 1} is drawn, and the k-th digit of the radical inverse of the
+ * index in base b_j is replaced by its image under the permutation. Also the zeros after the last
+ * digit are permuted, until the digits give a precision of about 2^{-40}: in this way, every
+ * scrambled point is uniformly distributed on a grid of step smaller than 2^{-40} in every coordinate,
+ * whereas the points keep the stratification of the Halton sequence. Different seeds give independent
+ * scramblings of the same sequence.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class ScrambledHaltonSequenceInBlocks implements QuasiRandomSequenceInBlocks {
+
+	// the digits of the j-th coordinate give a precision of 2^{-numberOfBitsOfPrecision}
+	private static final int numberOfBitsOfPrecision = 40;
+
+	private final int[] base;
+
+	// permutations[j][k][digit] is the image of digit at the k-th digit position of the j-th coordinate
+	private final int[][][] permutations;
+
+	/**
+	 * It constructs an object which generates the points of the Halton sequence in the given base,
+	 * with the digits scrambled by random permutations drawn by a generator with the given seed.
+	 *
+	 * @param base, a vector of integers bigger than one representing the base of the Halton sequence.
+	 *              Its length is the dimension of the points.
+	 * @param seed, the seed of the generator of the permutations
+	 */
+	public ScrambledHaltonSequenceInBlocks(int[] base, long seed) {
+		for (int b : base) {
+			if (b <= 1) {
+				throw new IllegalArgumentException("The elements of the base must be bigger than one.");
+			}
+		}
+		this.base = base.clone();
+		SplittableRandom randomGenerator = new SplittableRandom(seed);
+		permutations = new int[base.length][][];
+		for (int j = 0; j < base.length; j++) {
+			// the smallest number of digits such that b^{-numberOfDigits} <= 2^{-numberOfBitsOfPrecision}
+			int numberOfDigits = (int) Math.ceil(numberOfBitsOfPrecision * Math.log(2) / Math.log(base[j]));
+			permutations[j] = new int[numberOfDigits][];
+			for (int k = 0; k < numberOfDigits; k++) {
+				permutations[j][k] = getRandomPermutation(base[j], randomGenerator);
+			}
+		}
+	}
+
+	// a random permutation of {0,...,length - 1}, by the algorithm of Fisher and Yates
+	private static int[] getRandomPermutation(int length, SplittableRandom randomGenerator) {
+		int[] permutation = new int[length];
+		for (int i = 0; i < length; i++) {
+			permutation[i] = i;
+		}
+		for (int i = length - 1; i > 0; i--) {
+			int otherIndex = randomGenerator.nextInt(i + 1);
+			int element = permutation[i];
+			permutation[i] = permutation[otherIndex];
+			permutation[otherIndex] = element;
+		}
+		return permutation;
+	}
+
+	@Override
+	public int getDimension() {
+		return base.length;
+	}
+
+	// the scrambled radical inverse of index + 1 in the base of the j-th coordinate
+	private double getScrambledHaltonNumber(long index, int j) {
+		int b = base[j];
+		long remainingDigits = index + 1;
+		double haltonNumber = 0;
+		double factor = 1.0 / b;
+		for (int[] permutation : permutations[j]) {
+			haltonNumber += permutation[(int) (remainingDigits % b)] * factor;
+			factor /= b;
+			remainingDigits /= b;
+		}
+		return haltonNumber;
+	}
+
+	// The Javadoc documentation is given in the interface. No array is allocated
+	@Override
+	public void fillBlock(long firstIndex, int numberOfPoints, double[] coordinates) {
+		for (int j = 0; j < base.length; j++) {
+			int offset = j * numberOfPoints;
+			for (int i = 0; i < numberOfPoints; i++) {
+				coordinates[offset + i] = getScrambledHaltonNumber(firstIndex + i, j);
+			}
+		}
+	}
+}
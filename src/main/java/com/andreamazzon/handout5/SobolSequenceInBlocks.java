@@ -0,0 +1,157 @@
+package com.andreamazzon.handout5;
+
+import java.util.SplittableRandom;
+
+/**
+ * This class generates the points of a Sobol sequence in blocks, as a QuasiRandomSequenceInBlocks. The
+ * direction numbers are the ones of Joe and Kuo (file new-joe-kuo-6.21201), for dimensions up to 21.
+ * The point of index n is computed from the Gray code n ^ (n >> 1) of its index, so a block can start
+ * from any index; inside a block, every point is obtained from the previous one by a single xor. The
+ * point of index 0 is the origin, and the first 2^m points are a (t,m,d)-net in base 2.
+ * Optionally, the points can be randomized by a random digital shift, i.e., an xor of the bits of every
+ * coordinate with random bits, which is the same for all the points: every randomized point is then
+ * uniformly distributed in [0,1)^d, whereas the points keep the structure of a net.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class SobolSequenceInBlocks implements QuasiRandomSequenceInBlocks {
+
+	// the number of bits of every coordinate: the sequence has at most 2^32 points
+	private static final int numberOfBits = 32;
+
+	/*
+	 * For the dimensions from the second one: the degree s of the primitive polynomial, the number a
+	 * whose bits are its coefficients, and the initial direction numbers m_1,...,m_s.
+	 */
+	private static final int[][] joeKuoParameters = {
+			{ 1, 0, 1 },
+			{ 2, 1, 1, 3 },
+			{ 3, 1, 1, 3, 1 },
+			{ 3, 2, 1, 1, 1 },
+			{ 4, 1, 1, 1, 3, 3 },
+			{ 4, 4, 1, 3, 5, 13 },
+			{ 5, 2, 1, 1, 5, 5, 17 },
+			{ 5, 4, 1, 1, 5, 5, 5 },
+			{ 5, 7, 1, 1, 7, 11, 19 },
+			{ 5, 11, 1, 1, 5, 1, 1 },
+			{ 5, 13, 1, 1, 1, 3, 11 },
+			{ 5, 14, 1, 3, 5, 5, 31 },
+			{ 6, 1, 1, 3, 3, 9, 7, 49 },
+			{ 6, 13, 1, 1, 1, 15, 21, 21 },
+			{ 6, 16, 1, 3, 1, 13, 27, 49 },
+			{ 6, 19, 1, 1, 1, 15, 7, 5 },
+			{ 6, 22, 1, 3, 1, 15, 13, 25 },
+			{ 6, 25, 1, 1, 5, 5, 19, 61 },
+			{ 7, 1, 1, 3, 7, 11, 23, 15, 103 },
+			{ 7, 4, 1, 3, 7, 13, 13, 15, 69 } };
+
+	/**
+	 * The biggest dimension for which the direction numbers are available
+	 */
+	public static final int maximumDimension = joeKuoParameters.length + 1;
+
+	private final int dimension;
+
+	// directionNumbers[j][k] is the direction number v_{k+1} of the j-th coordinate, as 32 bits
+	private final int[][] directionNumbers;
+
+	// the bits of the random digital shift of every coordinate: all zero if there is no randomization
+	private final int[] digitalShift;
+
+	/**
+	 * It constructs an object which generates the points of the Sobol sequence of the given dimension.
+	 *
+	 * @param dimension, the dimension of the points, at most 21
+	 */
+	public SobolSequenceInBlocks(int dimension) {
+		if (dimension < 1 || dimension > maximumDimension) {
+			throw new IllegalArgumentException("The dimension must be between 1 and " + maximumDimension + ".");
+		}
+		this.dimension = dimension;
+		directionNumbers = new int[dimension][numberOfBits];
+		// first coordinate: v_k = 2^{-k}, i.e., the van der Corput sequence in base 2
+		for (int k = 0; k < numberOfBits; k++) {
+			directionNumbers[0][k] = 1 << (numberOfBits - 1 - k);
+		}
+		for (int j = 1; j < dimension; j++) {
+			computeDirectionNumbers(joeKuoParameters[j - 1], directionNumbers[j]);
+		}
+		digitalShift = new int[dimension];
+	}
+
+	/**
+	 * It constructs an object which generates the points of the Sobol sequence of the given dimension,
+	 * randomized by a random digital shift whose bits are given by a generator with the given seed.
+	 * Different seeds give independent randomizations of the same sequence.
+	 *
+	 * @param dimension, the dimension of the points, at most 21
+	 * @param seed,      the seed of the random digital shift
+	 */
+	public SobolSequenceInBlocks(int dimension, long seed) {
+		this(dimension);
+		SplittableRandom randomGenerator = new SplittableRandom(seed);
+		for (int j = 0; j < dimension; j++) {
+			digitalShift[j] = randomGenerator.nextInt();
+		}
+	}
+
+	/*
+	 * The recursion v_k = a_1 v_{k-1} xor ... xor a_{s-1} v_{k-s+1} xor v_{k-s} xor (v_{k-s} >> s),
+	 * starting from v_k = m_k / 2^k for k = 1,...,s.
+	 */
+	private static void computeDirectionNumbers(int[] parameters, int[] directionNumbersOfCoordinate) {
+		int degree = parameters[0];
+		int coefficients = parameters[1];
+		for (int k = 0; k < Math.min(degree, numberOfBits); k++) {
+			directionNumbersOfCoordinate[k] = parameters[2 + k] << (numberOfBits - 1 - k);
+		}
+		for (int k = degree; k < numberOfBits; k++) {
+			int directionNumber = directionNumbersOfCoordinate[k - degree]
+					^ (directionNumbersOfCoordinate[k - degree] >>> degree);
+			for (int l = 1; l < degree; l++) {
+				if (((coefficients >>> (degree - 1 - l)) & 1) == 1) {
+					directionNumber ^= directionNumbersOfCoordinate[k - l];
+				}
+			}
+			directionNumbersOfCoordinate[k] = directionNumber;
+		}
+	}
+
+	@Override
+	public int getDimension() {
+		return dimension;
+	}
+
+	// the bits of the j-th coordinate of the point of index index: the xor of the v_k for the bits of its Gray code
+	private int getBitsOfCoordinate(long index, int j) {
+		long grayCode = index ^ (index >>> 1);
+		int bits = 0;
+		for (int k = 0; grayCode != 0; k++, grayCode >>>= 1) {
+			if ((grayCode & 1) == 1) {
+				bits ^= directionNumbers[j][k];
+			}
+		}
+		return bits;
+	}
+
+	// The Javadoc documentation is given in the interface. No array is allocated
+	@Override
+	public void fillBlock(long firstIndex, int numberOfPoints, double[] coordinates) {
+		if (firstIndex < 0 || firstIndex + numberOfPoints > 1L << numberOfBits) {
+			throw new IllegalArgumentException("The Sobol sequence has only 2^" + numberOfBits + " points.");
+		}
+		for (int j = 0; j < dimension; j++) {
+			int offset = j * numberOfPoints;
+			int bits = getBitsOfCoordinate(firstIndex, j);
+			for (int i = 0; i < numberOfPoints; i++) {
+				// the bits are read as an unsigned integer, divided by 2^32
+				coordinates[offset + i] = Integer.toUnsignedLong(bits ^ digitalShift[j]) * 0x1p-32;
+				if (i < numberOfPoints - 1) {
+					// Gray code of n+1 = Gray code of n xor 2^c, where c is the number of trailing zeros of n+1
+					bits ^= directionNumbers[j][Long.numberOfTrailingZeros(firstIndex + i + 1)];
+				}
+			}
+		}
+	}
+}
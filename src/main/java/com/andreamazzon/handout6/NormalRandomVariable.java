@@ -12,7 +12,6 @@ public class NormalRandomVariable extends RandomVariableAbstract {
 
 	private double mu; // mean
 	private double sigma; // standard deviation
-	private final int orderOfApproximationForErf = 10;
 
 	// there are no public setters: every object will have its own mu and sigma
 	/**
@@ -43,79 +42,85 @@ public class NormalRandomVariable extends RandomVariableAbstract {
 		return Math.exp(-(x - mu) * (x - mu) / (2 * sigma * sigma)) / (sigma * Math.sqrt(2 * Math.PI));
 	}
 
-	/*
-	 * This method returns the value of the Taylor expansion of the error function
-	 * (Abramowitz and Stegun 7.1.5) in a given point.
-	 */
-	private double errorFunction(double x) {
-		double product = x;
-		double factorial = 1;//double: does not give overflows issues
-		double sum = product;// n=0 in the formula (you multiply by 2 / Math.sqrt(Math.PI) at the end)
-		for (int n = 1; n <= orderOfApproximationForErf; n++) {
-			factorial *= n;
-			// (-1)^n x^(2n+1) = (-1)^(n-1)*x^(2(n-1)+1)*(-1)*x^2
-			product *= (-1) * x * x;
-			sum += product / (factorial * (2 * n + 1));
-		}
-		return sum * 2 / Math.sqrt(Math.PI);
-	}
-
 	/**
 	 * It returns the value in a given point of the cumulative distribution function
-	 * of a normal random variable, with mean mu and standard deviation sigma.
+	 * of a normal random variable, with mean mu and standard deviation sigma. It is
+	 * computed from the complementary error function, approximated by the algorithm
+	 * of Cody (see StandardNormalFunctions), which is accurate on the whole real
+	 * line, also in the tails.
 	 *
 	 * @param x, the point where the cumulative distribution function is evaluated
 	 * @returns the value of the cumulative distribution function in x
 	 */
 	@Override
 	public double getCumulativeDistributionFunction(double x) {
-		return 0.5 * (1 + errorFunction((x - mu) / (Math.sqrt(2) * sigma)));
+		return StandardNormalFunctions.getCumulativeDistribution((x - mu) / sigma);
 	}
 
-	/*
-	 * This method returns the value in a point p in [0,0.5] of the approximation
-	 * of the quantile function for a STANDARD normal random variable from a formula
-	 * in Abramowitz and Stegun, see 26.2.23. There, the value x is given such that 
-	 * P(X >= x) = p, for p in [0,0.5]. 
-	 * That is,
-	 * p = P(X>=x) = P(X<=-x),
-	 * where the second equality is a well known property of the normal distribution. 
-	 * So we first compute x and the return its opposite. 
+	/**
+	 * It writes in cumulativeDistributions[i] the value in points[i] of the
+	 * cumulative distribution function, for all i, with the same result as
+	 * getCumulativeDistributionFunction(points[i]).
+	 *
+	 * @param points,                  the points where the cumulative distribution
+	 *                                 function is evaluated
+	 * @param cumulativeDistributions, the array where the values are written, at
+	 *                                 least as long as points. It can be points
+	 *                                 itself. Its entries after the first
+	 *                                 points.length ones are not modified.
 	 */
-	private double abramowitzQuantileFunction(double p) {// private: implementation, not interface
-		final double c0 = 2.515517;
-		final double c1 = 0.802853;
-		final double c2 = 0.010328;
-		final double d1 = 1.432788;
-		final double d2 = 0.189269;
-		final double d3 = 0.001308;
-		double t = Math.sqrt(Math.log(1/(p*p)));
-
-		return - (t - (c0 + c1 * t + c2 * t * t) / (1 + d1 * t + d2 * t * t + d3 * t * t * t));
+	public void getCumulativeDistributionFunction(double[] points, double[] cumulativeDistributions) {
+		// only the first points.length entries of cumulativeDistributions are written
+		for (int i = 0; i < points.length; i++) {
+			cumulativeDistributions[i] = StandardNormalFunctions.getCumulativeDistribution((points[i] - mu) / sigma);
+		}
 	}
 
 	/**
-	 * It returns the value in a point x in [0,1] of the approximation of the
-	 * quantile function basing on Abramowitz and Stegun 26.2.23.
+	 * It returns the value in a point p in [0,1] of the quantile function, computed from the one of a
+	 * standard normal random variable by the algorithm AS241 of Wichura (see
+	 * StandardNormalFunctions), whose relative error is about 1e-16.
 	 *
-	 * @param x, the point where the quantile function is approximated
-	 * @returns the value of the approximation of the quantile function in x
+	 * @param p, the point where the quantile function is computed
+	 * @returns the value of the quantile function in p
 	 */
 	@Override
 	public double getQuantileFunction(double p) {
 		/*
-		 * The original approximation formula is intended to hold for a standard normal
-		 * random variable (i.e., mu = 0, sigma = 1) for x <= 0.5. However, note that
-		 * qFS(x) = - qFS(1-x), calling qFS the quantile function of a standard normal
-		 * random variable, and that the quantile function of a normal random variable
-		 * with mean mu and standard deviation sigma is qF(x) = sigma qFS(x) + mu.
+		 * The quantile function of a normal random variable with mean mu and standard deviation sigma
+		 * is qF(x) = sigma qFS(x) + mu, calling qFS the quantile function of a standard normal
+		 * random variable.
 		 */
-		double quantileFunctionOfStandardNormal;
-		if (p <= 0.5) {
-			quantileFunctionOfStandardNormal = abramowitzQuantileFunction(p);
-		} else {
-			quantileFunctionOfStandardNormal = -abramowitzQuantileFunction(1 - p);
+		return sigma * StandardNormalFunctions.getQuantile(p) + mu;
+	}
+
+	/**
+	 * It writes in quantiles[i] the value in probabilities[i] of the quantile function, for all i, with
+	 * the same result as getQuantileFunction(probabilities[i]). This is faster than calling
+	 * getQuantileFunction for every point: see StandardNormalFunctions.getQuantiles.
+	 *
+	 * @param probabilities, the points in [0,1] where the quantile function is computed
+	 * @param quantiles,     the array where the values are written, at least as long as probabilities.
+	 *                       It can be probabilities itself.
+	 */
+	public void getQuantileFunction(double[] probabilities, double[] quantiles) {
+		StandardNormalFunctions.getQuantiles(probabilities, quantiles);
+		for (int i = 0; i < probabilities.length; i++) {
+			quantiles[i] = sigma * quantiles[i] + mu;
+		}
+	}
+
+	/*
+	 * The uniform realizations are first written in the array, and then all
+	 * transformed together by the quantile function: see
+	 * StandardNormalFunctions.getQuantiles.
+	 */
+	@Override
+	public void generate(double[] realizations, int offset, int length) {
+		generateUniforms(realizations, offset, length);
+		StandardNormalFunctions.getQuantiles(realizations, realizations, offset, length);
+		for (int i = offset; i < offset + length; i++) {
+			realizations[i] = sigma * realizations[i] + mu;
 		}
-		return sigma * quantileFunctionOfStandardNormal + mu;
 	}
 }
@@ -1,11 +1,16 @@
 package com.andreamazzon.handout6;
 
+import java.util.random.RandomGenerator;
+
+import com.andreamazzon.usefulmethodsmatricesandvectors.OnlineStatistics;
 import com.andreamazzon.usefulmethodsmatricesandvectors.UsefulMethodsMatricesAndVectors;
 
 /**
  * This is an abstract class implementing the interface RandomVariableInterface.
  * You can see that the methods whose implementation does not directly depend on
  * the specific type of the random variable are implemented here.
+ * The uniform realizations which are transformed by the quantile function are
+ * given by Math.random(), or by a generator set by setUniformRandomGenerator.
  *
  * @author Andrea Mazzon
  *
@@ -14,8 +19,59 @@ public abstract class RandomVariableAbstract implements RandomVariableInterface
 
 	// it stores independent realizations of the random variable
 	private double[] randomVariableRealizations;
+
+	// the number of realizations generated together by getSampleStatistics
+	private static final int numberOfRealizationsPerBlock = 1024;
+
+	/*
+	 * The generator of the uniform realizations which are transformed by the quantile
+	 * function. If it is null, as by default, they are given by Math.random(). It can
+	 * be set by setUniformRandomGenerator.
+	 */
+	private RandomGenerator uniformRandomGenerator;
 	
 	
+	/**
+	 * It sets the generator of the uniform realizations in (0,1) which are transformed
+	 * by the quantile function to get the realizations of the random variable: for
+	 * example a java.util.SplittableRandom, a MersenneTwisterRandomGenerator or an
+	 * AdjustedLinearCongruentialRandomGenerator with a given seed, so that the
+	 * realizations are the same every time they are generated again from that seed,
+	 * or a QuasiRandomSequenceRandomGenerator, which gives the points of a low
+	 * discrepancy sequence. If it is null, which is the default, the uniform
+	 * realizations are given by Math.random(). Most generators are not thread safe:
+	 * in this case the object must not be used by different threads at the same time.
+	 *
+	 * @param uniformRandomGenerator, the generator of the uniform realizations, or null
+	 */
+	public void setUniformRandomGenerator(RandomGenerator uniformRandomGenerator) {
+		this.uniformRandomGenerator = uniformRandomGenerator;
+	}
+
+	/*
+	 * It returns a realization of a uniform random variable in (0,1), given by the generator
+	 * set by setUniformRandomGenerator, or by Math.random() if no generator is set.
+	 */
+	protected double generateUniform() {
+		return uniformRandomGenerator == null ? Math.random() : uniformRandomGenerator.nextDouble();
+	}
+
+	/*
+	 * It writes in realizations[offset],...,realizations[offset + length - 1] independent
+	 * realizations of a uniform random variable in (0,1), given as in generateUniform().
+	 */
+	protected void generateUniforms(double[] realizations, int offset, int length) {
+		if (uniformRandomGenerator == null) {
+			for (int i = offset; i < offset + length; i++) {
+				realizations[i] = Math.random();
+			}
+		} else {
+			for (int i = offset; i < offset + length; i++) {
+				realizations[i] = uniformRandomGenerator.nextDouble();
+			}
+		}
+	}
+
 	@Override
 	public double generate() {
 		/*
@@ -27,21 +83,39 @@ public abstract class RandomVariableAbstract implements RandomVariableInterface
 		 * in the classes extending this abstract one, since of course it depends on the
 		 * specific distribution.
 		 */
-		double generationOfUniformRandomVariable = Math.random();
+		double generationOfUniformRandomVariable = generateUniform();
 		return getQuantileFunction(generationOfUniformRandomVariable);// X_i
 	}
 
 	/*
-	 * This method initializes randomVariableRealizations to be a one-dimensional
-	 * array of the given length n, and it fills it by calling generate() n times.
-	 * It is used to compute the mean and the standard deviation of a sample of
-	 * independent realizations of the random variable.
+	 * The realizations are generated one by one by generate(): the classes extending
+	 * this one can override this method if they can generate many realizations faster.
+	 */
+	@Override
+	public void generate(double[] realizations, int offset, int length) {
+		for (int i = offset; i < offset + length; i++) {
+			realizations[i] = generate();// generation of the new realization
+		}
+	}
+
+	@Override
+	public double[] generate(int n) {
+		generateValues(n);
+		return randomVariableRealizations;
+	}
+
+	/*
+	 * This method makes randomVariableRealizations a one-dimensional array of the
+	 * given length n, and it fills it with n new realizations. The array is
+	 * allocated only if it does not have already length n: in this way, the
+	 * methods computing the mean and the standard deviation of samples of the same
+	 * length do not allocate any memory when they are called again and again.
 	 */
 	private void generateValues(int n) {
-		randomVariableRealizations = new double[n];
-		for (int i = 0; i < n; i++) {
-			randomVariableRealizations[i] = generate();// generation of the new realization
+		if (randomVariableRealizations == null || randomVariableRealizations.length != n) {
+			randomVariableRealizations = new double[n];
 		}
+		generate(randomVariableRealizations, 0, n);
 	}
 
 
@@ -50,7 +124,7 @@ public abstract class RandomVariableAbstract implements RandomVariableInterface
 		/*
 		 * The method might be called more than once, obtaining different results. So
 		 * every time the method is called we call generateValues(n), that is supposed
-		 * to give different values to the one-dimensional array randomVariableRealizations
+		 * to give new values to the one-dimensional array randomVariableRealizations
 		 * every time is called.
 		 */
 		generateValues(n);
@@ -63,11 +137,32 @@ public abstract class RandomVariableAbstract implements RandomVariableInterface
 		/*
 		 * The method might be called more than once, obtaining different results. So
 		 * every time the method is called we call generateValues(n), that is supposed
-		 * to give different values to the one-dimensional array randomVariableRealizations
+		 * to give new values to the one-dimensional array randomVariableRealizations
 		 * every time is called.
 		 */
 		generateValues(n);
 		double standardDeviation = UsefulMethodsMatricesAndVectors.getStandardDeviation(randomVariableRealizations);
 		return standardDeviation;
 	}
+
+	@Override
+	public OnlineStatistics getSampleStatistics(long n) {
+		if (n < 0) {
+			throw new IllegalArgumentException("The length of the sample must be non negative");
+		}
+		/*
+		 * The realizations are generated in blocks by generate(double[], int, int), in an
+		 * array of fixed length, and then given one by one to the statistics.
+		 */
+		OnlineStatistics statistics = new OnlineStatistics();
+		double[] blockOfRealizations = new double[(int) Math.min(numberOfRealizationsPerBlock, n)];
+		for (long firstIndex = 0; firstIndex < n; firstIndex += numberOfRealizationsPerBlock) {
+			int numberOfRealizationsOfBlock = (int) Math.min(numberOfRealizationsPerBlock, n - firstIndex);
+			generate(blockOfRealizations, 0, numberOfRealizationsOfBlock);
+			for (int i = 0; i < numberOfRealizationsOfBlock; i++) {
+				statistics.add(blockOfRealizations[i]);
+			}
+		}
+		return statistics;
+	}
 }
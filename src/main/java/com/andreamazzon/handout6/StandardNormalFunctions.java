@@ -0,0 +1,331 @@
+package com.andreamazzon.handout6;
+
+/**
+ * This class provides approximations of functions related to the standard normal distribution,
+ * i.e., its quantile function and its cumulative distribution function, together with the error
+ * function, which are used by the classes representing normal random variables. They are given as static
+ * methods, both for a single point and for a whole array of points.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class StandardNormalFunctions {
+
+	/*
+	 * Coefficients of the algorithm AS241 (PPND16) of Wichura, "The percentage points of the normal
+	 * distribution", Applied Statistics 37 (1988). The rational functions a/b, c/d and e/f approximate
+	 * the quantile function with a relative error of about 1e-16 in the central region
+	 * |p - 0.5| <= 0.425, and in the tails for r = sqrt(-log(min(p, 1 - p))) <= 5 and r > 5.
+	 */
+	private static final double a0 = 3.3871328727963666080E0;
+	private static final double a1 = 1.3314166789178437745E+2;
+	private static final double a2 = 1.9715909503065514427E+3;
+	private static final double a3 = 1.3731693765509461125E+4;
+	private static final double a4 = 4.5921953931549871457E+4;
+	private static final double a5 = 6.7265770927008700853E+4;
+	private static final double a6 = 3.3430575583588128105E+4;
+	private static final double a7 = 2.5090809287301226727E+3;
+	private static final double b1 = 4.2313330701600911252E+1;
+	private static final double b2 = 6.8718700749205790830E+2;
+	private static final double b3 = 5.3941960214247511077E+3;
+	private static final double b4 = 2.1213794301586595867E+4;
+	private static final double b5 = 3.9307895800092710610E+4;
+	private static final double b6 = 2.8729085735721942674E+4;
+	private static final double b7 = 5.2264952788528545610E+3;
+
+	private static final double c0 = 1.42343711074968357734E0;
+	private static final double c1 = 4.63033784615654529590E0;
+	private static final double c2 = 5.76949722146069140550E0;
+	private static final double c3 = 3.64784832476320460504E0;
+	private static final double c4 = 1.27045825245236838258E0;
+	private static final double c5 = 2.41780725177450611770E-1;
+	private static final double c6 = 2.27238449892691845833E-2;
+	private static final double c7 = 7.74545014278341407640E-4;
+	private static final double d1 = 2.05319162663775882187E0;
+	private static final double d2 = 1.67638483018380384940E0;
+	private static final double d3 = 6.89767334985100004550E-1;
+	private static final double d4 = 1.48103976427480074590E-1;
+	private static final double d5 = 1.51986665636164571966E-2;
+	private static final double d6 = 5.47593808499534494600E-4;
+	private static final double d7 = 1.05075007164441684324E-9;
+
+	private static final double e0 = 6.65790464350110377720E0;
+	private static final double e1 = 5.46378491116411436990E0;
+	private static final double e2 = 1.78482653991729133580E0;
+	private static final double e3 = 2.96560571828504891230E-1;
+	private static final double e4 = 2.65321895265761230930E-2;
+	private static final double e5 = 1.24266094738807843860E-3;
+	private static final double e6 = 2.71155556874348757815E-5;
+	private static final double e7 = 2.01033439929228813265E-7;
+	private static final double f1 = 5.99832206555887937690E-1;
+	private static final double f2 = 1.36929880922735805310E-1;
+	private static final double f3 = 1.48753612908506148525E-2;
+	private static final double f4 = 7.86869131145613259100E-4;
+	private static final double f5 = 1.84631831751005468180E-5;
+	private static final double f6 = 1.42151175831644588870E-7;
+	private static final double f7 = 2.04426310338993978564E-15;
+
+	// the central region is |p - 0.5| <= centralRegionHalfWidth
+	private static final double centralRegionHalfWidth = 0.425;
+
+	/*
+	 * Coefficients of the algorithm CALERF of Cody, "Rational Chebyshev approximations for the error
+	 * function", Mathematics of Computation 23 (1969): erf(x) = x P(x^2)/Q(x^2) for |x| <= 0.46875,
+	 * erfc(x) = exp(-x^2) P(x)/Q(x) for 0.46875 < x <= 4, and
+	 * erfc(x) = exp(-x^2)/x (1/sqrt(pi) + 1/x^2 P(1/x^2)/Q(1/x^2)) for x > 4. The relative error is
+	 * of a few units in the last place on the whole real line.
+	 */
+	private static final double[] erfNumerator = { 3.16112374387056560E00, 1.13864154151050156E02,
+			3.77485237685302021E02, 3.20937758913846947E03, 1.85777706184603153E-1 };
+	private static final double[] erfDenominator = { 2.36012909523441209E01, 2.44024637934444173E02,
+			1.28261652607737228E03, 2.84423683343917062E03 };
+	private static final double[] erfcNumerator = { 5.64188496988670089E-1, 8.88314979438837594E00,
+			6.61191906371416295E01, 2.98635138197400131E02, 8.81952221241769090E02, 1.71204761263407058E03,
+			2.05107837782607147E03, 1.23033935479799725E03, 2.15311535474403846E-8 };
+	private static final double[] erfcDenominator = { 1.57449261107098347E01, 1.17693950891312499E02,
+			5.37181101862009858E02, 1.62138957456669019E03, 3.29079923573345963E03, 4.36261909014324716E03,
+			3.43936767414372164E03, 1.23033935480374942E03 };
+	private static final double[] erfcAsymptoticNumerator = { 3.05326634961232344E-1, 3.60344899949804439E-1,
+			1.25781726111229246E-1, 1.60837851487422766E-2, 6.58749161529837803E-4, 1.63153871373020978E-2 };
+	private static final double[] erfcAsymptoticDenominator = { 2.56852019228982242E00, 1.87295284992346725E00,
+			5.27905102951428412E-1, 6.05183413124413191E-2, 2.33520497626869185E-3 };
+
+	private static final double oneOverSquareRootOfPi = 5.6418958354775628695E-1;
+	private static final double oneOverSquareRootOfTwo = 0.70710678118654752440;
+
+	// under this value, erf(x) = 2x/sqrt(pi) in double precision
+	private static final double smallArgumentOfErf = 1.11E-16;
+	// over this value, erfc(x) is smaller than the smallest positive double
+	private static final double bigArgumentOfErfc = 26.543;
+
+	/**
+	 * It returns the value in p of the quantile function of a standard normal random variable, i.e.,
+	 * the inverse of its cumulative distribution function, by the algorithm AS241 of Wichura. The
+	 * relative error is about 1e-16 for all p in (0,1). The result is minus infinity for p = 0, plus
+	 * infinity for p = 1, and NaN for p outside [0,1].
+	 *
+	 * @param p, the point where the quantile function is computed
+	 * @return the quantile function in p
+	 */
+	public static double getQuantile(double p) {
+		double q = p - 0.5;
+		if (Math.abs(q) <= centralRegionHalfWidth) {
+			return getCentralQuantile(q);
+		}
+		return getTailQuantile(p);
+	}
+
+	/**
+	 * It writes in quantiles[i] the value in probabilities[i] of the quantile function of a standard
+	 * normal random variable, for all i, with the same result as getQuantile. If the two arrays are
+	 * different, the rational function of the central region, which contains 85% of the points if they
+	 * are uniformly distributed, is first computed for all the points in a loop without branches, which
+	 * can be vectorized by the compiler; the logarithm and the square root are then computed only for
+	 * the points in the tails. No array is allocated.
+	 *
+	 * @param probabilities, the points where the quantile function is computed
+	 * @param quantiles,     the array where the values are written, at least as long as probabilities.
+	 *                       It can be probabilities itself.
+	 */
+	public static void getQuantiles(double[] probabilities, double[] quantiles) {
+		getQuantiles(probabilities, quantiles, 0, probabilities.length);
+	}
+
+	/**
+	 * It writes in quantiles[i] the value in probabilities[i] of the quantile function of a standard
+	 * normal random variable, for i = offset,...,offset + length - 1, as getQuantiles(probabilities,
+	 * quantiles) does for all i.
+	 *
+	 * @param probabilities, the points where the quantile function is computed
+	 * @param quantiles,     the array where the values are written. It can be probabilities itself.
+	 * @param offset,        the index of the first point
+	 * @param length,        the number of points
+	 */
+	public static void getQuantiles(double[] probabilities, double[] quantiles, int offset, int length) {
+		if (probabilities != quantiles) {
+			for (int i = offset; i < offset + length; i++) {
+				quantiles[i] = getCentralQuantile(probabilities[i] - 0.5);
+			}
+			for (int i = offset; i < offset + length; i++) {
+				double p = probabilities[i];
+				if (!(Math.abs(p - 0.5) <= centralRegionHalfWidth)) {
+					quantiles[i] = getTailQuantile(p);
+				}
+			}
+		} else {
+			// the probabilities are overwritten: every one must be read before its quantile is written
+			for (int i = offset; i < offset + length; i++) {
+				double p = probabilities[i];
+				quantiles[i] = Math.abs(p - 0.5) <= centralRegionHalfWidth ? getCentralQuantile(p - 0.5)
+						: getTailQuantile(p);
+			}
+		}
+	}
+
+	// the approximation a/b for |q| = |p - 0.5| <= 0.425
+	private static double getCentralQuantile(double q) {
+		double r = 0.180625 - q * q;
+		return q * (((((((a7 * r + a6) * r + a5) * r + a4) * r + a3) * r + a2) * r + a1) * r + a0)
+				/ (((((((b7 * r + b6) * r + b5) * r + b4) * r + b3) * r + b2) * r + b1) * r + 1.0);
+	}
+
+	// the approximations c/d and e/f for |p - 0.5| > 0.425, computed for min(p, 1 - p)
+	private static double getTailQuantile(double p) {
+		if (!(p >= 0 && p <= 1)) {
+			return Double.NaN;
+		}
+		if (p == 0 || p == 1) {
+			return p == 0 ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+		}
+		double r = Math.sqrt(-Math.log(p < 0.5 ? p : 1 - p));
+		double quantile;
+		if (r <= 5) {
+			r -= 1.6;
+			quantile = (((((((c7 * r + c6) * r + c5) * r + c4) * r + c3) * r + c2) * r + c1) * r + c0)
+					/ (((((((d7 * r + d6) * r + d5) * r + d4) * r + d3) * r + d2) * r + d1) * r + 1.0);
+		} else {
+			r -= 5;
+			quantile = (((((((e7 * r + e6) * r + e5) * r + e4) * r + e3) * r + e2) * r + e1) * r + e0)
+					/ (((((((f7 * r + f6) * r + f5) * r + f4) * r + f3) * r + f2) * r + f1) * r + 1.0);
+		}
+		return p < 0.5 ? -quantile : quantile;
+	}
+
+	/**
+	 * It returns the value in x of the error function erf(x) = 2/sqrt(pi) int_0^x exp(-t^2) dt, by the
+	 * algorithm of Cody, with a relative error of about 1e-15 for all x.
+	 *
+	 * @param x, the point where the error function is computed
+	 * @return erf(x)
+	 */
+	public static double getErrorFunction(double x) {
+		double y = Math.abs(x);
+		if (y <= 0.46875) {
+			return getErrorFunctionAroundZero(x);
+		}
+		// erf(x) = 1 - erfc(x), computed as (0.5 - erfc(x)) + 0.5 as in Cody
+		double errorFunction = (0.5 - getComplementaryErrorFunctionOfPositiveArgument(y)) + 0.5;
+		return x < 0 ? -errorFunction : errorFunction;
+	}
+
+	/**
+	 * It returns the value in x of the complementary error function erfc(x) = 1 - erf(x), by the
+	 * algorithm of Cody, with a relative error of about 1e-15 for all x. For big positive x, this
+	 * is much more accurate than 1 - getErrorFunction(x), which is zero for x > 6.
+	 *
+	 * @param x, the point where the complementary error function is computed
+	 * @return erfc(x)
+	 */
+	public static double getComplementaryErrorFunction(double x) {
+		double y = Math.abs(x);
+		if (y <= 0.46875) {
+			return 1 - getErrorFunctionAroundZero(x);
+		}
+		double complementaryErrorFunction = getComplementaryErrorFunctionOfPositiveArgument(y);
+		return x < 0 ? 2 - complementaryErrorFunction : complementaryErrorFunction;
+	}
+
+	// erf(x) = x P(x^2)/Q(x^2), for |x| <= 0.46875
+	private static double getErrorFunctionAroundZero(double x) {
+		double xSquared = Math.abs(x) > smallArgumentOfErf ? x * x : 0;
+		double numerator = erfNumerator[4] * xSquared;
+		double denominator = xSquared;
+		for (int i = 0; i < 3; i++) {
+			numerator = (numerator + erfNumerator[i]) * xSquared;
+			denominator = (denominator + erfDenominator[i]) * xSquared;
+		}
+		return x * (numerator + erfNumerator[3]) / (denominator + erfDenominator[3]);
+	}
+
+	// erfc(y) for y > 0.46875, by the rational approximations for y <= 4 and y > 4
+	private static double getComplementaryErrorFunctionOfPositiveArgument(double y) {
+		if (!(y < bigArgumentOfErfc)) {
+			return Double.isNaN(y) ? Double.NaN : 0;
+		}
+		double rationalFunction;
+		if (y <= 4) {
+			double numerator = erfcNumerator[8] * y;
+			double denominator = y;
+			for (int i = 0; i < 7; i++) {
+				numerator = (numerator + erfcNumerator[i]) * y;
+				denominator = (denominator + erfcDenominator[i]) * y;
+			}
+			rationalFunction = (numerator + erfcNumerator[7]) / (denominator + erfcDenominator[7]);
+		} else {
+			double inverseOfSquare = 1 / (y * y);
+			double numerator = erfcAsymptoticNumerator[5] * inverseOfSquare;
+			double denominator = inverseOfSquare;
+			for (int i = 0; i < 4; i++) {
+				numerator = (numerator + erfcAsymptoticNumerator[i]) * inverseOfSquare;
+				denominator = (denominator + erfcAsymptoticDenominator[i]) * inverseOfSquare;
+			}
+			rationalFunction = inverseOfSquare * (numerator + erfcAsymptoticNumerator[4])
+					/ (denominator + erfcAsymptoticDenominator[4]);
+			rationalFunction = (oneOverSquareRootOfPi - rationalFunction) / y;
+		}
+		/*
+		 * exp(-y^2) is computed as exp(-z^2) exp(-(y - z)(y + z)), where z is y rounded down to a
+		 * multiple of 1/16, so that z^2 is exact and the rounding error of y^2 is not amplified.
+		 */
+		double roundedY = Math.floor(y * 16) / 16;
+		double difference = (y - roundedY) * (y + roundedY);
+		return Math.exp(-roundedY * roundedY) * Math.exp(-difference) * rationalFunction;
+	}
+
+	/**
+	 * It returns the value in x of the cumulative distribution function of a standard normal random
+	 * variable, computed as erfc(-x/sqrt(2))/2: the relative error is small also in the left tail,
+	 * where the function is very small and 1 - erf would give zero. There, it is dominated by the
+	 * rounding of x/sqrt(2), amplified by a factor x^2: for example, it is about 1e-14 for x = -20.
+	 *
+	 * @param x, the point where the cumulative distribution function is computed
+	 * @return the cumulative distribution function in x
+	 */
+	public static double getCumulativeDistribution(double x) {
+		return 0.5 * getComplementaryErrorFunction(-x * oneOverSquareRootOfTwo);
+	}
+
+	/**
+	 * It writes in cumulativeDistributions[i] the value in points[i] of the cumulative distribution
+	 * function of a standard normal random variable, for all i, with the same result as
+	 * getCumulativeDistribution.
+	 *
+	 * @param points,                  the points where the cumulative distribution function is computed
+	 * @param cumulativeDistributions, the array where the values are written, at least as long as
+	 *                                 points. It can be points itself.
+	 */
+	public static void getCumulativeDistributions(double[] points, double[] cumulativeDistributions) {
+		for (int i = 0; i < points.length; i++) {
+			cumulativeDistributions[i] = getCumulativeDistribution(points[i]);
+		}
+	}
+
+	/**
+	 * It returns the value in p of the approximation of the quantile function of a standard normal
+	 * random variable given by the formula 26.2.23 of Abramowitz and Stegun, whose absolute error is
+	 * smaller than 4.5e-4. It was used by the normal random variables before getQuantile, and it is
+	 * kept to compare the two approximations.
+	 *
+	 * @param p, the point in (0,1) where the quantile function is approximated
+	 * @return the approximation of the quantile function in p
+	 */
+	public static double getQuantileAbramowitzStegun(double p) {
+		/*
+		 * The formula gives the value x such that P(X >= x) = p, for p in (0,0.5]. Since
+		 * p = P(X >= x) = P(X <= -x), we return its opposite, and for p > 0.5 we use the symmetry
+		 * of the quantile function with respect to 0.5.
+		 */
+		if (p > 0.5) {
+			return -getQuantileAbramowitzStegun(1 - p);
+		}
+		final double c0 = 2.515517;
+		final double c1 = 0.802853;
+		final double c2 = 0.010328;
+		final double d1 = 1.432788;
+		final double d2 = 0.189269;
+		final double d3 = 0.001308;
+		double t = Math.sqrt(Math.log(1 / (p * p)));
+
+		return -(t - (c0 + c1 * t + c2 * t * t) / (1 + d1 * t + d2 * t * t + d3 * t * t * t));
+	}
+}
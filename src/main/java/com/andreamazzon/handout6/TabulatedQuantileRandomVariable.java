@@ -0,0 +1,391 @@
+package com.andreamazzon.handout6;
+
+import java.util.Arrays;
+
+/**
+ * This class wraps a random variable, represented by an object of type RandomVariableInterface, and
+ * generates its realizations by inversion of the distribution function using a table of the quantile
+ * function, which is computed once in the constructor from the cumulative distribution function and
+ * the density of the wrapped random variable. This is useful when the quantile function of the wrapped
+ * random variable has no closed form, and is then costly to compute for every realization.
+ *
+ * The table is built by the method of Hörmann and Leydold, "Continuous random variate generation by
+ * fast numerical inversion", ACM TOMACS 13 (2003): the quantile function is approximated in every
+ * interval [p_k, p_{k+1}] of a grid of probabilities by the cubic Hermite polynomial with the values
+ * x_k and x_{k+1}, where p_k = F(x_k) for the cumulative distribution function F, and with the
+ * derivatives 1/f(x_k) and 1/f(x_{k+1}), where f is the density. The derivatives are reduced where
+ * needed so that the approximation is increasing (Fritsch and Carlson). Every interval is split until
+ * the error |F(Q(p)) - p| of the approximation Q is smaller than the given tolerance in the points p
+ * of the interval at one quarter, one half and three quarters of its length: so the grid is
+ * automatically denser where the quantile function is more curved, i.e., in the tails. Hörmann and
+ * Leydold check only the middle point; the two other points make the check stricter, but this is
+ * still a heuristic: the error is not guaranteed to be smaller than the tolerance between the
+ * checked points. Since F(Q(U)) is then uniformly distributed up to about the tolerance, the
+ * distribution of the realizations differs from the one of the wrapped random variable by about the
+ * tolerance, in the sense of the maximum difference of the cumulative distribution functions.
+ *
+ * The table covers the probabilities between F(x_0) and F(x_N), which are about the tolerance and one
+ * minus the tolerance: for the (rare) probabilities outside, the quantile function of the wrapped
+ * random variable is called. Inside, the interval of a probability is found by a guide table, in a
+ * constant expected time, and the quantile is then given by the evaluation of a polynomial of degree
+ * three. The mean, the standard deviation, the density and the cumulative distribution function are
+ * the ones of the wrapped random variable.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class TabulatedQuantileRandomVariable extends RandomVariableAbstract {
+
+	private final RandomVariableInterface randomVariable;
+
+	private final double tolerance;
+
+	/*
+	 * probabilities[k] = F(x_k) for the points x_0 < ... < x_N of the grid: the interval k is
+	 * [probabilities[k], probabilities[k + 1]], for k = 0,...,N-1.
+	 */
+	private double[] probabilities;
+
+	/*
+	 * The coefficients of the polynomial of the interval k are coefficients[4k],...,coefficients[4k+3]:
+	 * the quantile of p is sum_j coefficients[4k+j] t^j, with t = (p - probabilities[k]) *
+	 * inverseLengths[k] in [0,1].
+	 */
+	private double[] coefficients;
+	private double[] inverseLengths;
+
+	/*
+	 * guideTable[j] is the interval containing the probability
+	 * probabilities[0] + j / guideTableScale: the interval of p is then found by looking forward
+	 * from guideTable[(int) ((p - probabilities[0]) * guideTableScale)]. It has as many entries as
+	 * the intervals, so that on average less than two intervals are looked at.
+	 */
+	private int[] guideTable;
+	private double guideTableScale;
+
+	/*
+	 * The biggest error |F(Q(p)) - p| found in the checked points of the intervals: it is not bigger
+	 * than the tolerance, otherwise the table is not built and the constructor throws an exception.
+	 */
+	private double maximumCheckedError;
+
+	// the values of t = (p - p_k)/(p_{k+1} - p_k) where the error of the polynomial of every interval is checked
+	private static final double[] checkedPoints = { 0.25, 0.5, 0.75 };
+
+	// the number of intervals of equal length in x from which the grid is refined
+	private static final int initialNumberOfIntervals = 32;
+
+	// an interval is not split anymore after this number of splits: if the error is still too big, we throw
+	private static final int maximumNumberOfSplits = 50;
+
+	// the number of bisections used to find the ends of the table
+	private static final int numberOfBisections = 100;
+
+	/**
+	 * It constructs an object which generates the realizations of the given random variable from a table
+	 * of its quantile function, whose error |F(Q(p)) - p| is at most the given tolerance in the points
+	 * where it is checked, see the documentation of the class. Between these points, it is not
+	 * guaranteed to be smaller than the tolerance.
+	 *
+	 * @param randomVariable, the random variable whose quantile function is tabulated. Its cumulative
+	 *                        distribution function must be continuous and increasing where it is in
+	 *                        (0,1), and its analytic mean and standard deviation finite.
+	 * @param tolerance,      the tolerance for the error |F(Q(p)) - p|. It also gives the probability of
+	 *                        the two tails outside the table.
+	 * @throws IllegalStateException if the error in a checked point of some interval is still bigger
+	 *                               than the tolerance when the interval cannot be split anymore, for
+	 *                               example because the tolerance is too small for the precision of the
+	 *                               cumulative distribution function
+	 */
+	public TabulatedQuantileRandomVariable(RandomVariableInterface randomVariable, double tolerance) {
+		if (!(tolerance > 0 && tolerance < 0.5)) {
+			throw new IllegalArgumentException("The tolerance must be in (0, 0.5).");
+		}
+		this.randomVariable = randomVariable;
+		this.tolerance = tolerance;
+		buildTable();
+	}
+
+	// if not specified, the tolerance is 1e-10
+	public TabulatedQuantileRandomVariable(RandomVariableInterface randomVariable) {
+		this(randomVariable, 1E-10);
+	}
+
+	/*
+	 * It computes the grid, refining the initial one where the error is too big, and then the
+	 * coefficients of the polynomials and the guide table.
+	 */
+	private void buildTable() {
+		double leftEnd = getEndOfTable(true);
+		double rightEnd = getEndOfTable(false);
+
+		// it only lives while the table is built
+		GridOfNodes grid = new GridOfNodes(4 * initialNumberOfIntervals);
+		grid.addNode(leftEnd, randomVariable.getCumulativeDistributionFunction(leftEnd));
+		for (int k = 1; k <= initialNumberOfIntervals; k++) {
+			double node = k == initialNumberOfIntervals ? rightEnd
+					: leftEnd + k * (rightEnd - leftEnd) / initialNumberOfIntervals;
+			double probability = randomVariable.getCumulativeDistributionFunction(node);
+			if (probability > grid.probabilitiesOfNodes[grid.numberOfNodes - 1]) {// no intervals of zero probability
+				// the interval from the last node to this one, refined where needed, and then this node
+				grid.refineInterval(grid.numberOfNodes - 1, node, probability, 0);
+				grid.addNode(node, probability);
+			}
+		}
+		maximumCheckedError = grid.maximumCheckedError;
+
+		int numberOfIntervals = grid.numberOfNodes - 1;
+		probabilities = Arrays.copyOf(grid.probabilitiesOfNodes, grid.numberOfNodes);
+		coefficients = new double[4 * numberOfIntervals];
+		inverseLengths = new double[numberOfIntervals];
+		for (int k = 0; k < numberOfIntervals; k++) {
+			grid.computeCoefficients(k, coefficients, 4 * k);
+			inverseLengths[k] = 1 / (probabilities[k + 1] - probabilities[k]);
+		}
+
+		guideTable = new int[numberOfIntervals];
+		guideTableScale = numberOfIntervals / (probabilities[numberOfIntervals] - probabilities[0]);
+		int interval = 0;
+		for (int j = 0; j < numberOfIntervals; j++) {
+			double probability = probabilities[0] + j / guideTableScale;
+			while (interval < numberOfIntervals - 1 && probabilities[interval + 1] <= probability) {
+				interval++;
+			}
+			guideTable[j] = interval;
+		}
+	}
+
+	/*
+	 * It returns the point x such that F(x) is about the tolerance, if isLeftEnd is true, or such that
+	 * 1 - F(x) is about the tolerance otherwise. It is found by moving away from the mean by steps
+	 * which are doubled every time, and then by bisection.
+	 */
+	private double getEndOfTable(boolean isLeftEnd) {
+		double step = randomVariable.getAnalyticStdDeviation();
+		double sign = isLeftEnd ? -1 : 1;
+		double inside = randomVariable.getAnalyticMean();
+		double outside = inside + sign * step;
+		while (!isBeyondTable(outside, isLeftEnd)) {
+			inside = outside;
+			step *= 2;
+			outside = inside + sign * step;
+		}
+		for (int i = 0; i < numberOfBisections && Math.abs(outside - inside) > Math.ulp(outside); i++) {
+			double middle = 0.5 * (inside + outside);
+			if (isBeyondTable(middle, isLeftEnd)) {
+				outside = middle;
+			} else {
+				inside = middle;
+			}
+		}
+		return inside;
+	}
+
+	// true if the probability of the tail beyond x is smaller than the tolerance
+	private boolean isBeyondTable(double x, boolean isLeftEnd) {
+		double cumulativeDistribution = randomVariable.getCumulativeDistributionFunction(x);
+		return isLeftEnd ? cumulativeDistribution < tolerance : 1 - cumulativeDistribution < tolerance;
+	}
+
+	/*
+	 * The nodes x_k of the grid, with F(x_k) and the derivatives 1/f(x_k), while the grid is built by
+	 * buildTable: only the probabilities and the coefficients of the polynomials are then kept in the
+	 * table, and the object is discarded.
+	 */
+	private class GridOfNodes {
+
+		private double[] nodes;
+		private double[] probabilitiesOfNodes;
+		private double[] derivativesOfNodes;
+		private int numberOfNodes;
+
+		// the biggest error |F(Q(p)) - p| found in the middle points of the intervals
+		private double maximumCheckedError;
+
+		private GridOfNodes(int initialCapacity) {
+			nodes = new double[initialCapacity];
+			probabilitiesOfNodes = new double[initialCapacity];
+			derivativesOfNodes = new double[initialCapacity];
+		}
+
+		// it adds the node x with F(x) = probability at the end of the grid
+		private void addNode(double x, double probability) {
+			if (numberOfNodes == nodes.length) {
+				// we double the length, so that the copies take a time proportional to the number of nodes
+				nodes = Arrays.copyOf(nodes, 2 * nodes.length);
+				probabilitiesOfNodes = Arrays.copyOf(probabilitiesOfNodes, nodes.length);
+				derivativesOfNodes = Arrays.copyOf(derivativesOfNodes, nodes.length);
+			}
+			nodes[numberOfNodes] = x;
+			probabilitiesOfNodes[numberOfNodes] = probability;
+			// the derivative of the quantile function is one over the density
+			derivativesOfNodes[numberOfNodes] = 1 / randomVariable.getDensityFunction(x);
+			numberOfNodes++;
+		}
+
+		/*
+		 * It checks the error of the polynomial of the interval from the last node of the grid, of index
+		 * indexOfLeftNode, to rightNode, in the points given by checkedPoints: if it is too big in one of
+		 * them, the interval is split in the value of the polynomial in the middle of the interval, and
+		 * the two intervals are refined in the same way. The nodes in between are added to the grid, but
+		 * not rightNode.
+		 */
+		private void refineInterval(int indexOfLeftNode, double rightNode, double probabilityOfRightNode,
+				int numberOfSplits) {
+			double leftNode = nodes[indexOfLeftNode];
+			double probabilityOfLeftNode = probabilitiesOfNodes[indexOfLeftNode];
+			double[] coefficientsOfInterval = new double[4];
+			TabulatedQuantileRandomVariable.computeCoefficients(leftNode, probabilityOfLeftNode,
+					derivativesOfNodes[indexOfLeftNode], rightNode, probabilityOfRightNode,
+					1 / randomVariable.getDensityFunction(rightNode), coefficientsOfInterval, 0);
+			double error = 0;
+			double middleNode = 0;
+			double probabilityOfMiddleNode = 0;
+			for (double t : checkedPoints) {
+				// the value of the polynomial in t, and the probability it should have
+				double value = coefficientsOfInterval[0]
+						+ t * (coefficientsOfInterval[1] + t * (coefficientsOfInterval[2] + t * coefficientsOfInterval[3]));
+				double probabilityOfValue = randomVariable.getCumulativeDistributionFunction(value);
+				error = Math.max(error, Math.abs(probabilityOfValue
+						- (probabilityOfLeftNode + t * (probabilityOfRightNode - probabilityOfLeftNode))));
+				if (t == 0.5) {// the interval is split here, if needed
+					middleNode = value;
+					probabilityOfMiddleNode = probabilityOfValue;
+				}
+			}
+			if (!(probabilityOfMiddleNode > probabilityOfLeftNode && probabilityOfMiddleNode < probabilityOfRightNode)) {
+				// the polynomial is far off where F is very flat: we split in the middle point of the interval
+				middleNode = 0.5 * (leftNode + rightNode);
+				probabilityOfMiddleNode = randomVariable.getCumulativeDistributionFunction(middleNode);
+			}
+			// the interval is not split if the error is small enough
+			if (error <= tolerance) {
+				maximumCheckedError = Math.max(maximumCheckedError, error);
+				return;
+			}
+			/*
+			 * The error is too big, but the interval cannot be split if it has been split too many times,
+			 * or if the probability of the new node would not be strictly inside, which can happen only by
+			 * rounding errors if F is increasing: then the tolerance cannot be attained. We stop at once,
+			 * since the other intervals would be split many times as well.
+			 */
+			if (numberOfSplits == maximumNumberOfSplits
+					|| !(probabilityOfMiddleNode > probabilityOfLeftNode && probabilityOfMiddleNode < probabilityOfRightNode)) {
+				throw new IllegalStateException("The error " + error + " of the table in the interval ["
+						+ leftNode + ", " + rightNode + "] is bigger than the tolerance " + tolerance
+						+ " and the interval cannot be split anymore.");
+			}
+			refineInterval(indexOfLeftNode, middleNode, probabilityOfMiddleNode, numberOfSplits + 1);
+			addNode(middleNode, probabilityOfMiddleNode);
+			refineInterval(numberOfNodes - 1, rightNode, probabilityOfRightNode, numberOfSplits + 1);
+		}
+
+		// the coefficients of the polynomial of the interval between the nodes of indices k and k+1
+		private void computeCoefficients(int k, double[] coefficientsOfIntervals, int offset) {
+			TabulatedQuantileRandomVariable.computeCoefficients(nodes[k], probabilitiesOfNodes[k],
+					derivativesOfNodes[k], nodes[k + 1], probabilitiesOfNodes[k + 1], derivativesOfNodes[k + 1],
+					coefficientsOfIntervals, offset);
+		}
+	}
+
+	/*
+	 * It writes in coefficientsOfIntervals[offset],...,coefficientsOfIntervals[offset + 3] the
+	 * coefficients in t of the cubic Hermite polynomial with values leftNode and rightNode and
+	 * derivatives leftDerivative and rightDerivative with respect to p in the ends of the interval
+	 * [leftProbability, rightProbability], where t = (p - leftProbability)/(rightProbability -
+	 * leftProbability).
+	 */
+	private static void computeCoefficients(double leftNode, double leftProbability, double leftDerivative,
+			double rightNode, double rightProbability, double rightDerivative, double[] coefficientsOfIntervals,
+			int offset) {
+		double length = rightProbability - leftProbability;
+		double difference = rightNode - leftNode;
+		// the derivatives with respect to t, divided by the slope of the secant
+		double alpha = leftDerivative * length / difference;
+		double beta = rightDerivative * length / difference;
+		if (!(alpha >= 0 && beta >= 0 && alpha < Double.POSITIVE_INFINITY && beta < Double.POSITIVE_INFINITY)) {
+			// the density is zero, or not defined: the polynomial is the secant
+			alpha = 1;
+			beta = 1;
+		}
+		// the condition of Fritsch and Carlson for the polynomial to be increasing
+		double sumOfSquares = alpha * alpha + beta * beta;
+		if (sumOfSquares > 9) {
+			double factor = 3 / Math.sqrt(sumOfSquares);
+			alpha *= factor;
+			beta *= factor;
+		}
+		coefficientsOfIntervals[offset] = leftNode;
+		coefficientsOfIntervals[offset + 1] = alpha * difference;
+		coefficientsOfIntervals[offset + 2] = (3 - 2 * alpha - beta) * difference;
+		coefficientsOfIntervals[offset + 3] = (alpha + beta - 2) * difference;
+	}
+
+	/**
+	 * It returns the approximation of the quantile function given by the table, or the quantile
+	 * function of the wrapped random variable if p is outside the table.
+	 *
+	 * @param p, the point in [0,1] where the quantile function is computed
+	 * @return the approximation of the quantile function in p
+	 */
+	@Override
+	public double getQuantileFunction(double p) {
+		int lastInterval = inverseLengths.length - 1;
+		if (!(p >= probabilities[0] && p <= probabilities[lastInterval + 1])) {
+			return randomVariable.getQuantileFunction(p);
+		}
+		int k = guideTable[Math.min((int) ((p - probabilities[0]) * guideTableScale), lastInterval)];
+		while (k < lastInterval && p > probabilities[k + 1]) {
+			k++;
+		}
+		double t = (p - probabilities[k]) * inverseLengths[k];
+		int first = 4 * k;
+		return coefficients[first] + t * (coefficients[first + 1] + t * (coefficients[first + 2] + t * coefficients[first + 3]));
+	}
+
+	/**
+	 * It returns the biggest error |F(Q(p)) - p| found in the points of the intervals of the table
+	 * where it is checked (at one quarter, one half and three quarters of every interval), where F is
+	 * the cumulative distribution function of the wrapped random variable and Q the approximation of
+	 * its quantile function. The error between these points can be bigger.
+	 *
+	 * @return the biggest error found in the checked points when the table was built
+	 */
+	public double getMaximumCheckedError() {
+		return maximumCheckedError;
+	}
+
+	/**
+	 * @return the number of intervals of the table
+	 */
+	public int getNumberOfIntervals() {
+		return inverseLengths.length;
+	}
+
+	/**
+	 * @return the tolerance for the error of the table
+	 */
+	public double getTolerance() {
+		return tolerance;
+	}
+
+	@Override
+	public double getAnalyticMean() {
+		return randomVariable.getAnalyticMean();
+	}
+
+	@Override
+	public double getAnalyticStdDeviation() {
+		return randomVariable.getAnalyticStdDeviation();
+	}
+
+	@Override
+	public double getCumulativeDistributionFunction(double x) {
+		return randomVariable.getCumulativeDistributionFunction(x);
+	}
+
+	@Override
+	public double getDensityFunction(double x) {
+		return randomVariable.getDensityFunction(x);
+	}
+}
@@ -1,6 +1,10 @@
 package com.andreamazzon.handout7.randomvariables;
 
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
 import com.andreamazzon.handout6.ExponentialRandomVariable;
+import com.andreamazzon.handout6.StandardNormalFunctions;
 
 /**
  * This class represents normal random variables. It extends
@@ -14,7 +18,36 @@ public class NormalRandomVariable extends RandomVariableAbstract {
 
 	private double mu; // mean
 	private double sigma; // standard deviation
-	private final int orderOfApproximationForErf = 10;
+
+	// used by generateAR: it has no state apart from its intensity, so it is created only once
+	private final ExponentialRandomVariable exponential = new ExponentialRandomVariable(1.0);
+
+	/*
+	 * Tables of the Ziggurat method with 128 layers, see generateZiggurat. The layers have all the same
+	 * area areaOfLayer, the base one including the tail beyond rightEndOfBaseLayer. The i-th layer has
+	 * right end zigguratX[i], and zigguratRatios[i] = zigguratX[i+1]/zigguratX[i] is the fraction of
+	 * it which is below the density also in the layer above.
+	 */
+	private static final int numberOfLayers = 128;
+	private static final double rightEndOfBaseLayer = 3.442619855899;
+	private static final double areaOfLayer = 9.91256303526217E-3;
+	private static final double[] zigguratX = new double[numberOfLayers + 1];
+	private static final double[] zigguratRatios = new double[numberOfLayers];
+
+	static {
+		// the density is here exp(-x^2/2), without normalization
+		double density = Math.exp(-0.5 * rightEndOfBaseLayer * rightEndOfBaseLayer);
+		zigguratX[0] = areaOfLayer / density;// the base layer is a rectangle with the same area as the others
+		zigguratX[1] = rightEndOfBaseLayer;
+		zigguratX[numberOfLayers] = 0;
+		for (int i = 2; i < numberOfLayers; i++) {
+			zigguratX[i] = Math.sqrt(-2 * Math.log(areaOfLayer / zigguratX[i - 1] + density));
+			density = Math.exp(-0.5 * zigguratX[i] * zigguratX[i]);
+		}
+		for (int i = 0; i < numberOfLayers; i++) {
+			zigguratRatios[i] = zigguratX[i + 1] / zigguratX[i];
+		}
+	}
 
 	// there are no public setters: every object will have its own mu and sigma
 	/**
@@ -45,80 +78,100 @@ public class NormalRandomVariable extends RandomVariableAbstract {
 		return Math.exp(-(x - mu) * (x - mu) / (2 * sigma * sigma)) / (sigma * Math.sqrt(2 * Math.PI));
 	}
 
-	/*
-	 * This method returns the value of the Taylor expansion of the error function
-	 * (Abramowitz and Stegun 7.1.5) in a given point.
-	 */
-	private double errorFunction(double x) {
-		double product = x;
-		double factorial = 1;//double: does not give overflows issues
-		double sum = product;// n=0 in the formula (you multiply by 2 / Math.sqrt(Math.PI) at the end)
-		for (int n = 1; n <= orderOfApproximationForErf; n++) {
-			factorial *= n;
-			// (-1)^n x^(2n+1) = (-1)^(n-1)*x^(2(n-1)+1)*(-1)*x^2
-			product *= (-1) * x * x;
-			sum += product / (factorial * (2 * n + 1));
-		}
-		return sum * 2 / Math.sqrt(Math.PI);
-	}
-
 	/**
 	 * It returns the value in a given point of the cumulative distribution function
-	 * of a normal random variable, with mean mu and standard deviation sigma.
+	 * of a normal random variable, with mean mu and standard deviation sigma. It is
+	 * computed from the complementary error function, approximated by the algorithm
+	 * of Cody (see StandardNormalFunctions), which is accurate on the whole real
+	 * line, also in the tails.
 	 *
 	 * @param x, the point where the cumulative distribution function is evaluated
 	 * @returns the value of the cumulative distribution function in x
 	 */
 	@Override
 	public double getCumulativeDistributionFunction(double x) {
-		return 0.5 * (1 + errorFunction((x - mu) / (Math.sqrt(2) * sigma)));
+		return StandardNormalFunctions.getCumulativeDistribution((x - mu) / sigma);
 	}
 
-	/*
-	 * This method returns the value in a point p in [0,0.5] of the approximation
-	 * of the quantile function for a STANDARD normal random variable from a formula
-	 * in Abramowitz and Stegun, see 26.2.23. There, the value x is given such that 
-	 * P(X >= x) = p, for p in (0,0.5]. 
-	 * That is,
-	 * p = P(X>=x) = P(X<=-x),
-	 * where the second equality is a well known property of the normal distribution. 
-	 * So we first compute x and the return its opposite. 
+	/**
+	 * It writes in cumulativeDistributions[i] the value in points[i] of the
+	 * cumulative distribution function, for all i, with the same result as
+	 * getCumulativeDistributionFunction(points[i]).
+	 *
+	 * @param points,                  the points where the cumulative distribution
+	 *                                 function is evaluated
+	 * @param cumulativeDistributions, the array where the values are written, at
+	 *                                 least as long as points. It can be points
+	 *                                 itself. Its entries after the first
+	 *                                 points.length ones are not modified.
 	 */
-	private double abramowitzQuantileFunction(double p) {// private: implementation, not interface
-		final double c0 = 2.515517;
-		final double c1 = 0.802853;
-		final double c2 = 0.010328;
-		final double d1 = 1.432788;
-		final double d2 = 0.189269;
-		final double d3 = 0.001308;
-		double t = Math.sqrt(Math.log(1/(p*p)));
-
-		return - (t - (c0 + c1 * t + c2 * t * t) / (1 + d1 * t + d2 * t * t + d3 * t * t * t));
+	public void getCumulativeDistributionFunction(double[] points, double[] cumulativeDistributions) {
+		// only the first points.length entries of cumulativeDistributions are written
+		for (int i = 0; i < points.length; i++) {
+			cumulativeDistributions[i] = StandardNormalFunctions.getCumulativeDistribution((points[i] - mu) / sigma);
+		}
 	}
 
 	/**
-	 * It returns the value in a point x in [0,1] of the approximation of the
-	 * quantile function basing on Abramowitz and Stegun 26.2.23.
+	 * It returns the value in a point p in [0,1] of the quantile function, computed from the one of a
+	 * standard normal random variable by the algorithm AS241 of Wichura (see
+	 * StandardNormalFunctions), whose relative error is about 1e-16.
 	 *
-	 * @param x, the point where the quantile function is approximated
-	 * @returns the value of the approximation of the quantile function in x
+	 * @param p, the point where the quantile function is computed
+	 * @returns the value of the quantile function in p
 	 */
 	@Override
 	public double getQuantileFunction(double p) {
 		/*
-		 * The original approximation formula is intended to hold for a standard normal
-		 * random variable (i.e., mu = 0, sigma = 1) for x <= 0.5. However, note that
-		 * qFS(x) = - qFS(1-x), calling qFS the quantile function of a standard normal
-		 * random variable, and that the quantile function of a normal random variable
-		 * with mean mu and standard deviation sigma is qF(x) = sigma qFS(x) + mu.
+		 * The quantile function of a normal random variable with mean mu and standard deviation sigma
+		 * is qF(x) = sigma qFS(x) + mu, calling qFS the quantile function of a standard normal
+		 * random variable.
 		 */
-		double quantileFunctionOfStandardNormal;
-		if (p <= 0.5) {
-			quantileFunctionOfStandardNormal = abramowitzQuantileFunction(p);
-		} else {
-			quantileFunctionOfStandardNormal = -abramowitzQuantileFunction(1 - p);
+		return sigma * StandardNormalFunctions.getQuantile(p) + mu;
+	}
+
+	/**
+	 * It writes in quantiles[i] the value in probabilities[i] of the quantile function, for all i, with
+	 * the same result as getQuantileFunction(probabilities[i]). This is faster than calling
+	 * getQuantileFunction for every point: see StandardNormalFunctions.getQuantiles.
+	 *
+	 * @param probabilities, the points in [0,1] where the quantile function is computed
+	 * @param quantiles,     the array where the values are written, at least as long as probabilities.
+	 *                       It can be probabilities itself.
+	 */
+	public void getQuantileFunction(double[] probabilities, double[] quantiles) {
+		StandardNormalFunctions.getQuantiles(probabilities, quantiles);
+		for (int i = 0; i < probabilities.length; i++) {
+			quantiles[i] = sigma * quantiles[i] + mu;
+		}
+	}
+
+	/*
+	 * The uniform realizations are first written in the array, and then all
+	 * transformed together by the quantile function: see
+	 * StandardNormalFunctions.getQuantiles.
+	 */
+	@Override
+	public void generate(double[] realizations, int offset, int length) {
+		generateUniforms(realizations, offset, length);
+		transformUniformRealizations(realizations, offset, length);
+	}
+
+	// as generate(double[], int, int), with the uniform realizations taken from randomGenerator
+	@Override
+	protected void generate(RandomGenerator randomGenerator, double[] realizations, int offset, int length) {
+		for (int i = offset; i < offset + length; i++) {
+			realizations[i] = randomGenerator.nextDouble();
+		}
+		transformUniformRealizations(realizations, offset, length);
+	}
+
+	// it replaces the uniform realizations in the given part of the array by the normal ones
+	private void transformUniformRealizations(double[] realizations, int offset, int length) {
+		StandardNormalFunctions.getQuantiles(realizations, realizations, offset, length);
+		for (int i = offset; i < offset + length; i++) {
+			realizations[i] = sigma * realizations[i] + mu;
 		}
-		return sigma * quantileFunctionOfStandardNormal + mu;
 	}
 	
 	/**
@@ -131,7 +184,6 @@ public class NormalRandomVariable extends RandomVariableAbstract {
 	public double generateAR() { // generation
 
 		double uniformDrawing, exponentialDrawing;
-		ExponentialRandomVariable exponential = new ExponentialRandomVariable(1.0);
 		do {// you do it at least once: example of do..while
 			// generation of uniformDrawing and exponentialDrawing
 			uniformDrawing = Math.random();// realization of a uniformly distribute random variable in (0,1)
@@ -154,4 +206,108 @@ public class NormalRandomVariable extends RandomVariableAbstract {
 	public double[] generateBivariateNormalAR() { // generation
 		return new double[] { generateAR(), generateAR() };
 	}
+
+	/**
+	 * It simulates a realization of a normal random variable by the Ziggurat method of Marsaglia and
+	 * Tsang, in the version of Doornik. The area below the density (on the positive half-line) is
+	 * covered by 128 horizontal layers of the same area: a layer is chosen at random, and a point
+	 * uniformly distributed in it. In about 99% of the cases the point is below the density also in
+	 * the layer above, and it is accepted by only one comparison: the exponential function is computed
+	 * only in the other cases, and the logarithm only for the tail. The uniform realizations are given
+	 * by java.util.concurrent.ThreadLocalRandom.
+	 *
+	 * @return the realization
+	 */
+	public double generateZiggurat() {
+		return sigma * generateStandardNormalZiggurat(ThreadLocalRandom.current()) + mu;
+	}
+
+	/**
+	 * It fills the given array with independent realizations of a normal random variable, generated
+	 * by the Ziggurat method as in generateZiggurat.
+	 *
+	 * @param realizations, the array to be filled
+	 */
+	public void generateZiggurat(double[] realizations) {
+		ThreadLocalRandom randomGenerator = ThreadLocalRandom.current();
+		for (int i = 0; i < realizations.length; i++) {
+			realizations[i] = sigma * generateStandardNormalZiggurat(randomGenerator) + mu;
+		}
+	}
+
+	private static double generateStandardNormalZiggurat(ThreadLocalRandom randomGenerator) {
+		while (true) {
+			/*
+			 * The layer is given by the lowest 7 bits, the point u in (-1,1) by the highest 53 bits: so
+			 * they are independent.
+			 */
+			long bits = randomGenerator.nextLong();
+			int layer = (int) (bits & (numberOfLayers - 1));
+			double u = 2 * ((bits >>> 11) * 0x1p-53) - 1;
+			if (Math.abs(u) < zigguratRatios[layer]) {
+				return u * zigguratX[layer];// below the density also in the layer above
+			}
+			if (layer == 0) {
+				return generateTailOfStandardNormal(randomGenerator, u < 0);
+			}
+			double x = u * zigguratX[layer];
+			// the density at the lower and at the upper bound of the layer, divided by the one at x
+			double densityRatioAtLowerBound = Math.exp(-0.5 * (zigguratX[layer] * zigguratX[layer] - x * x));
+			double densityRatioAtUpperBound = Math.exp(-0.5 * (zigguratX[layer + 1] * zigguratX[layer + 1] - x * x));
+			if (densityRatioAtUpperBound
+					+ randomGenerator.nextDouble() * (densityRatioAtLowerBound - densityRatioAtUpperBound) < 1.0) {
+				return x;
+			}
+		}
+	}
+
+	// the tail beyond rightEndOfBaseLayer, by the method of Marsaglia
+	private static double generateTailOfStandardNormal(ThreadLocalRandom randomGenerator, boolean isNegative) {
+		double x, y;
+		do {
+			// 1 - nextDouble() is in (0,1], so the logarithm is finite
+			x = Math.log(1 - randomGenerator.nextDouble()) / rightEndOfBaseLayer;
+			y = Math.log(1 - randomGenerator.nextDouble());
+		} while (-2 * y < x * x);
+		return isNegative ? x - rightEndOfBaseLayer : rightEndOfBaseLayer - x;
+	}
+
+	/**
+	 * It generates a pair of independent normal random variables by the polar method of Marsaglia: a
+	 * point (u,v) uniformly distributed in the unit disk is generated by acceptance rejection from the
+	 * square [-1,1]^2, and then (u,v) sqrt(-2 log(s)/s), with s = u^2 + v^2, is a pair of independent
+	 * standard normal random variables. Differently from the Box-Muller method, no sine and cosine are
+	 * computed. The uniform realizations are given by java.util.concurrent.ThreadLocalRandom.
+	 *
+	 * @return array of doubles of length 2, containing the two realizations
+	 */
+	public double[] generateBivariateNormalPolar() {
+		double[] pair = new double[2];
+		generatePolar(pair);
+		return pair;
+	}
+
+	/**
+	 * It fills the given array with independent realizations of a normal random variable, generated
+	 * in pairs by the polar method as in generateBivariateNormalPolar. If the length of the array is
+	 * odd, the second element of the last pair is not used.
+	 *
+	 * @param realizations, the array to be filled
+	 */
+	public void generatePolar(double[] realizations) {
+		ThreadLocalRandom randomGenerator = ThreadLocalRandom.current();
+		for (int i = 0; i < realizations.length; i += 2) {
+			double u, v, s;
+			do {
+				u = 2 * randomGenerator.nextDouble() - 1;
+				v = 2 * randomGenerator.nextDouble() - 1;
+				s = u * u + v * v;
+			} while (s >= 1 || s == 0);
+			double factor = sigma * Math.sqrt(-2 * Math.log(s) / s);
+			realizations[i] = factor * u + mu;
+			if (i + 1 < realizations.length) {
+				realizations[i + 1] = factor * v + mu;
+			}
+		}
+	}
 }
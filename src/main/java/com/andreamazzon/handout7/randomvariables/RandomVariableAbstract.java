@@ -1,14 +1,26 @@
 package com.andreamazzon.handout7.randomvariables;
 
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.DoubleUnaryOperator;
+import java.util.random.RandomGenerator;
 
+import com.andreamazzon.usefulmethodsmatricesandvectors.OnlineStatistics;
 import com.andreamazzon.usefulmethodsmatricesandvectors.UsefulMethodsMatricesAndVectors;
 
 /**
  * This is an abstract class implementing the interface RandomVariableInterface.
  * You can see that the methods whose implementation does not directly depend on
  * the specific type of the random variable are implemented here.
+ * The uniform realizations which are transformed by the quantile function are
+ * given by Math.random(), or by a generator set by setUniformRandomGenerator.
+ * The sample statistics can also be computed in parallel, for a given seed, by
+ * getSampleStatisticsInParallel: the number of threads is set by
+ * setNumberOfThreads.
  *
  * @author Andrea Mazzon
  *
@@ -20,7 +32,73 @@ public abstract class RandomVariableAbstract implements RandomVariableInterface
 	
 	// it stores independent realizations of a function of the random variable
 	private double[] randomVariableRealizationsFunction;
+
+	// the number of realizations generated together by getSampleStatistics
+	private static final int numberOfRealizationsPerBlock = 1024;
+
+	/*
+	 * The number of threads used by getSampleStatisticsInParallel. It can be set by
+	 * setNumberOfThreads.
+	 */
+	private int numberOfThreads = 1;
+
+	/*
+	 * The number of realizations of every partition of the sample in
+	 * getSampleStatisticsInParallel. It does not depend on the number of threads, so
+	 * that neither the partitions nor their random streams do.
+	 */
+	private static final int numberOfRealizationsPerPartition = 1 << 16;
+
+	/*
+	 * The generator of the uniform realizations which are transformed by the quantile
+	 * function. If it is null, as by default, they are given by Math.random(). It can
+	 * be set by setUniformRandomGenerator.
+	 */
+	private RandomGenerator uniformRandomGenerator;
 	
+	/**
+	 * It sets the generator of the uniform realizations in (0,1) which are transformed
+	 * by the quantile function to get the realizations of the random variable: for
+	 * example a java.util.SplittableRandom, a MersenneTwisterRandomGenerator or an
+	 * AdjustedLinearCongruentialRandomGenerator with a given seed, so that the
+	 * realizations are the same every time they are generated again from that seed,
+	 * or a QuasiRandomSequenceRandomGenerator, which gives the points of a low
+	 * discrepancy sequence. If it is null, which is the default, the uniform
+	 * realizations are given by Math.random(). Most generators are not thread safe:
+	 * in this case the object must not be used by different threads at the same time.
+	 * It is not used by getSampleStatisticsInParallel, whose random streams are
+	 * derived from the seed given there.
+	 *
+	 * @param uniformRandomGenerator, the generator of the uniform realizations, or null
+	 */
+	public void setUniformRandomGenerator(RandomGenerator uniformRandomGenerator) {
+		this.uniformRandomGenerator = uniformRandomGenerator;
+	}
+
+	/*
+	 * It returns a realization of a uniform random variable in (0,1), given by the generator
+	 * set by setUniformRandomGenerator, or by Math.random() if no generator is set.
+	 */
+	protected double generateUniform() {
+		return uniformRandomGenerator == null ? Math.random() : uniformRandomGenerator.nextDouble();
+	}
+
+	/*
+	 * It writes in realizations[offset],...,realizations[offset + length - 1] independent
+	 * realizations of a uniform random variable in (0,1), given as in generateUniform().
+	 */
+	protected void generateUniforms(double[] realizations, int offset, int length) {
+		if (uniformRandomGenerator == null) {
+			for (int i = offset; i < offset + length; i++) {
+				realizations[i] = Math.random();
+			}
+		} else {
+			for (int i = offset; i < offset + length; i++) {
+				realizations[i] = uniformRandomGenerator.nextDouble();
+			}
+		}
+	}
+
 	@Override
 	public double generate() {
 		/*
@@ -32,21 +110,39 @@ public abstract class RandomVariableAbstract implements RandomVariableInterface
 		 * in the classes extending this abstract one, since of course it depends on the
 		 * specific distribution.
 		 */
-		double generationOfUniformRandomVariable = Math.random();
+		double generationOfUniformRandomVariable = generateUniform();
 		return getQuantileFunction(generationOfUniformRandomVariable);// X_i
 	}
 
 	/*
-	 * This method initializes randomVariableRealizations to be a one-dimensional
-	 * array of the given length n, and it fills it by calling generate() n times.
-	 * It is used to compute the mean and the standard deviation of a sample of
-	 * independent realizations of the random variable.
+	 * The realizations are generated one by one by generate(): the classes extending
+	 * this one can override this method if they can generate many realizations faster.
+	 */
+	@Override
+	public void generate(double[] realizations, int offset, int length) {
+		for (int i = offset; i < offset + length; i++) {
+			realizations[i] = generate();// generation of the new realization
+		}
+	}
+
+	@Override
+	public double[] generate(int n) {
+		generateValues(n);
+		return randomVariableRealizations;
+	}
+
+	/*
+	 * This method makes randomVariableRealizations a one-dimensional array of the
+	 * given length n, and it fills it with n new realizations. The array is
+	 * allocated only if it does not have already length n: in this way, the
+	 * methods computing the mean and the standard deviation of samples of the same
+	 * length do not allocate any memory when they are called again and again.
 	 */
 	private void generateValues(int n) {
-		randomVariableRealizations = new double[n];
-		for (int i = 0; i < n; i++) {
-			randomVariableRealizations[i] = generate();// generation of the new realization
+		if (randomVariableRealizations == null || randomVariableRealizations.length != n) {
+			randomVariableRealizations = new double[n];
 		}
+		generate(randomVariableRealizations, 0, n);
 	}
 
 
@@ -55,7 +151,7 @@ public abstract class RandomVariableAbstract implements RandomVariableInterface
 		/*
 		 * The method might be called more than once, obtaining different results. So
 		 * every time the method is called we call generateValues(n), that is supposed
-		 * to give different values to the one-dimensional array randomVariableRealizations
+		 * to give new values to the one-dimensional array randomVariableRealizations
 		 * every time is called.
 		 */
 		generateValues(n);
@@ -68,7 +164,7 @@ public abstract class RandomVariableAbstract implements RandomVariableInterface
 		/*
 		 * The method might be called more than once, obtaining different results. So
 		 * every time the method is called we call generateValues(n), that is supposed
-		 * to give different values to the one-dimensional array randomVariableRealizations
+		 * to give new values to the one-dimensional array randomVariableRealizations
 		 * every time is called.
 		 */
 		generateValues(n);
@@ -92,16 +188,21 @@ public abstract class RandomVariableAbstract implements RandomVariableInterface
 	}
 
 	/*
-	 * This method initializes randomVariableRealizationsFunction to be a
-	 * one-dimensional array of the given length n, and it fills it by calling
-	 * generate(DoubleUnaryOperator function) n times. It is used to compute the
+	 * This method makes randomVariableRealizationsFunction a one-dimensional array
+	 * of the given length n, and it fills it with n new realizations of the
+	 * function of the random variable. It is used to compute the
 	 * mean and the standard deviation of a sample of independent realizations of
 	 * the random variable.
 	 */
 	private void generateValues(int n, DoubleUnaryOperator function) {
-		randomVariableRealizationsFunction = new double[n];
+		// as in generateValues(int n), the array is allocated only if its length changes
+		if (randomVariableRealizationsFunction == null || randomVariableRealizationsFunction.length != n) {
+			randomVariableRealizationsFunction = new double[n];
+		}
+		generate(randomVariableRealizationsFunction, 0, n);
 		for (int i = 0; i < n; i++) {
-			randomVariableRealizationsFunction[i] = generate(function);// generation of the new realization
+			// f(X_i), as in generate(DoubleUnaryOperator function)
+			randomVariableRealizationsFunction[i] = function.applyAsDouble(randomVariableRealizationsFunction[i]);
 		}
 	}
 	
@@ -121,6 +222,138 @@ public abstract class RandomVariableAbstract implements RandomVariableInterface
 		return standardDeviation;
 	}
 	
+	@Override
+	public OnlineStatistics getSampleStatistics(long n) {
+		if (n < 0) {
+			throw new IllegalArgumentException("The length of the sample must be non negative");
+		}
+		/*
+		 * The realizations are generated in blocks by generate(double[], int, int), in an
+		 * array of fixed length, and then given one by one to the statistics.
+		 */
+		OnlineStatistics statistics = new OnlineStatistics();
+		double[] blockOfRealizations = new double[(int) Math.min(numberOfRealizationsPerBlock, n)];
+		for (long firstIndex = 0; firstIndex < n; firstIndex += numberOfRealizationsPerBlock) {
+			int numberOfRealizationsOfBlock = (int) Math.min(numberOfRealizationsPerBlock, n - firstIndex);
+			generate(blockOfRealizations, 0, numberOfRealizationsOfBlock);
+			for (int i = 0; i < numberOfRealizationsOfBlock; i++) {
+				statistics.add(blockOfRealizations[i]);
+			}
+		}
+		return statistics;
+	}
+
+	@Override
+	public OnlineStatistics getSampleStatistics(long n, DoubleUnaryOperator function) {
+		if (n < 0) {
+			throw new IllegalArgumentException("The length of the sample must be non negative");
+		}
+		// as in getSampleStatistics(long n), but the statistics are the ones of f(X_i)
+		OnlineStatistics statistics = new OnlineStatistics();
+		double[] blockOfRealizations = new double[(int) Math.min(numberOfRealizationsPerBlock, n)];
+		for (long firstIndex = 0; firstIndex < n; firstIndex += numberOfRealizationsPerBlock) {
+			int numberOfRealizationsOfBlock = (int) Math.min(numberOfRealizationsPerBlock, n - firstIndex);
+			generate(blockOfRealizations, 0, numberOfRealizationsOfBlock);
+			for (int i = 0; i < numberOfRealizationsOfBlock; i++) {
+				statistics.add(function.applyAsDouble(blockOfRealizations[i]));
+			}
+		}
+		return statistics;
+	}
+
+	/**
+	 * It sets the number of threads used by getSampleStatisticsInParallel and
+	 * getSampleMeanInParallel. The results are the same whatever the number of
+	 * threads.
+	 *
+	 * @param numberOfThreads, the number of threads
+	 */
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	/*
+	 * It writes in realizations[offset],...,realizations[offset + length - 1]
+	 * independent realizations of the random variable, obtained by inversion of the
+	 * distribution function as in generate() but taking the uniform realizations from
+	 * randomGenerator. The classes extending this one can override it if they can
+	 * transform many uniform realizations faster. It is called at the same time by
+	 * different threads, with different generators, by getSampleStatisticsInParallel:
+	 * so it must not modify the state of the object.
+	 */
+	protected void generate(RandomGenerator randomGenerator, double[] realizations, int offset, int length) {
+		for (int i = offset; i < offset + length; i++) {
+			realizations[i] = getQuantileFunction(randomGenerator.nextDouble());
+		}
+	}
+
+	@Override
+	public OnlineStatistics getSampleStatisticsInParallel(long n, DoubleUnaryOperator function, long seed) {
+		if (n < 0) {
+			throw new IllegalArgumentException("The length of the sample must be non negative");
+		}
+		/*
+		 * The sample is split in partitions of numberOfRealizationsPerPartition
+		 * realizations (the last one can be smaller). The random stream of every
+		 * partition is split from a SplittableRandom with the given seed, always in the
+		 * order of the partitions, and the statistics of the partitions are merged in
+		 * the same order: so the result only depends on n, on the function and on the
+		 * seed, and not on the number of threads.
+		 */
+		SplittableRandom generatorOfStreams = new SplittableRandom(seed);
+		OnlineStatistics statistics = new OnlineStatistics();
+		if (numberOfThreads > 1) {
+			ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+			try {
+				List<ForkJoinTask<OnlineStatistics>> partitions = new ArrayList<>();
+				for (long firstIndex = 0; firstIndex < n; firstIndex += numberOfRealizationsPerPartition) {
+					SplittableRandom randomStream = generatorOfStreams.split();
+					int numberOfRealizationsOfPartition = (int) Math.min(numberOfRealizationsPerPartition,
+							n - firstIndex);
+					partitions.add(pool.submit(
+							() -> getStatisticsOfPartition(numberOfRealizationsOfPartition, function, randomStream)));
+				}
+				// we wait until every partition is computed, and merge the statistics always in the same order
+				for (ForkJoinTask<OnlineStatistics> partition : partitions) {
+					statistics.merge(partition.join());
+				}
+			} finally {
+				pool.shutdown();// also if the function throws an exception
+			}
+		} else {
+			for (long firstIndex = 0; firstIndex < n; firstIndex += numberOfRealizationsPerPartition) {
+				int numberOfRealizationsOfPartition = (int) Math.min(numberOfRealizationsPerPartition, n - firstIndex);
+				statistics.merge(getStatisticsOfPartition(numberOfRealizationsOfPartition, function,
+						generatorOfStreams.split()));
+			}
+		}
+		return statistics;
+	}
+
+	/*
+	 * It returns the statistics of n realizations of the function of the random
+	 * variable, generated in blocks from the uniform realizations of randomStream as
+	 * in getSampleStatistics(long n, DoubleUnaryOperator function).
+	 */
+	private OnlineStatistics getStatisticsOfPartition(int n, DoubleUnaryOperator function,
+			RandomGenerator randomStream) {
+		OnlineStatistics statistics = new OnlineStatistics();
+		double[] blockOfRealizations = new double[Math.min(numberOfRealizationsPerBlock, n)];
+		for (int firstIndex = 0; firstIndex < n; firstIndex += numberOfRealizationsPerBlock) {
+			int numberOfRealizationsOfBlock = Math.min(numberOfRealizationsPerBlock, n - firstIndex);
+			generate(randomStream, blockOfRealizations, 0, numberOfRealizationsOfBlock);
+			for (int i = 0; i < numberOfRealizationsOfBlock; i++) {
+				statistics.add(function.applyAsDouble(blockOfRealizations[i]));
+			}
+		}
+		return statistics;
+	}
+
+	@Override
+	public double getSampleMeanInParallel(long n, DoubleUnaryOperator function, long seed) {
+		return getSampleStatisticsInParallel(n, function, seed).getAverage();
+	}
+
 	@Override
 	public double getSampleMeanWithWeightedMonteCarlo(int n, DoubleUnaryOperator function,
 			RandomVariableInterface otherRandomVariable) {
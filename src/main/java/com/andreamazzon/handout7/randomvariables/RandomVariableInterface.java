@@ -2,6 +2,8 @@ package com.andreamazzon.handout7.randomvariables;
 
 import java.util.function.DoubleUnaryOperator;
 
+import com.andreamazzon.usefulmethodsmatricesandvectors.OnlineStatistics;
+
 /**
  * This interface provides methods to be implemented by a class representing a
  * random variable with a given distribution.
@@ -19,6 +21,31 @@ public interface RandomVariableInterface {
 	 */
 	double generate();
 
+	/**
+	 * It writes independent realizations of a random variable with given
+	 * distribution in realizations[offset],...,realizations[offset + length - 1].
+	 * The random variable is represented by the object calling the method. No
+	 * array is allocated, so the same array can be filled again and again.
+	 *
+	 * @param realizations, the array where the realizations are written
+	 * @param offset,       the index of the first realization in the array
+	 * @param length,       the number of realizations
+	 */
+	void generate(double[] realizations, int offset, int length);
+
+	/**
+	 * It returns an array of n independent realizations of a random variable with
+	 * given distribution. The random variable is represented by the object calling
+	 * the method. The array is a buffer of the object, which is reused (and then
+	 * overwritten) by the next calls of this method, of getSampleMean and of
+	 * getSampleStdDeviation with the same n: it must be copied if the
+	 * realizations are needed afterwards.
+	 *
+	 * @param n, the number of realizations
+	 * @return an array of length n with the realizations
+	 */
+	double[] generate(int n);
+
 	/**
 	 * It returns the analytic expectation of a random variable with a given
 	 * distribution. The random variable is represented by the object calling the
@@ -66,6 +93,21 @@ public interface RandomVariableInterface {
 	 */
 	double getSampleStdDeviation(int n);
 
+	/**
+	 * It returns the statistics of a sample of specified length n of independent
+	 * realizations of a random variable with given distribution: the mean, the
+	 * variance and standard deviation, the standard error of the mean, the minimum
+	 * and the maximum. The random variable is represented by the object calling the
+	 * method. The realizations are not stored, but given one at a time to an object
+	 * of type OnlineStatistics: so they are generated only once for all the
+	 * statistics, and the memory needed does not depend on n.
+	 *
+	 * @param n, the length of the sample
+	 * @return the statistics of the sample
+	 * @throws IllegalArgumentException if n is negative
+	 */
+	OnlineStatistics getSampleStatistics(long n);
+
 	/**
 	 * It returns the cumulative distribution function of the random variable
 	 * calling the method, evaluated at x. Note: depending on the distribution of
@@ -142,6 +184,53 @@ public interface RandomVariableInterface {
 	 *
 	 */
 	double getSampleStdDeviation(int n, DoubleUnaryOperator function);
+
+	/**
+	 * It returns the statistics of a sample of specified length n of independent
+	 * realizations of a function of a random variable with given distribution, as
+	 * getSampleStatistics(long n) does for the random variable. The random variable
+	 * is represented by the object calling the method, and the function by a
+	 * DoubleUnaryOperator given as an argument.
+	 *
+	 * @param n,        the length of the sample
+	 * @param function, the function to be sampled represented by a
+	 *                  DoubleUnaryOperator
+	 * @return the statistics of the sample
+	 * @throws IllegalArgumentException if n is negative
+	 */
+	OnlineStatistics getSampleStatistics(long n, DoubleUnaryOperator function);
+
+	/**
+	 * It returns the statistics of a sample of specified length n of independent
+	 * realizations of a function of a random variable with given distribution, as
+	 * getSampleStatistics(long n, DoubleUnaryOperator function) does, but splitting
+	 * the sample in partitions whose realizations are generated in parallel. The
+	 * random streams of the partitions are derived from the given seed, so the
+	 * result is the same for the same seed, whatever the number of threads. The
+	 * function is evaluated at the same time by different threads, so it must be
+	 * thread safe.
+	 *
+	 * @param n,        the length of the sample
+	 * @param function, the function to be sampled represented by a
+	 *                  DoubleUnaryOperator
+	 * @param seed,     the seed from which the random streams are derived
+	 * @return the statistics of the sample
+	 * @throws IllegalArgumentException if n is negative
+	 */
+	OnlineStatistics getSampleStatisticsInParallel(long n, DoubleUnaryOperator function, long seed);
+
+	/**
+	 * It returns the average of a sample of specified length n of independent
+	 * realizations of a function of a random variable with given distribution,
+	 * computed in parallel as in getSampleStatisticsInParallel.
+	 *
+	 * @param n,        the length of the sample
+	 * @param function, the function to be sampled represented by a
+	 *                  DoubleUnaryOperator
+	 * @param seed,     the seed from which the random streams are derived
+	 * @return the mean of the sample
+	 */
+	double getSampleMeanInParallel(long n, DoubleUnaryOperator function, long seed);
 	
 	
 	/**
@@ -0,0 +1,222 @@
+package com.andreamazzon.usefulmethodsmatricesandvectors;
+
+/**
+ * This class accumulates statistics of a sequence of values which are given one at a time, without
+ * storing them: the number of values, their average and standard deviation, their minimum and
+ * maximum and, if the interval and the number of bins are given in the constructor, their histogram.
+ * In this way, all the statistics can be got at any time with a cost which does not depend on the
+ * number of values. The average and the sum of the squared deviations from the average are updated
+ * by the method of Welford, with Kahan compensation of the rounding errors. Two objects accumulating
+ * two parts of the same sequence can be merged, for example when the parts are given by different
+ * threads. An object of this class is not thread safe.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class OnlineStatistics {
+
+	private long numberOfValues;
+
+	private double average;
+	private double averageError;// the compensation of the rounding errors of average, as in Kahan summation
+
+	private double sumOfSquaredDeviations;// sum_i (x_i - average)^2
+	private double sumOfSquaredDeviationsError;
+
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+
+	// the histogram, as in UsefulMethodsMatricesAndVectors.buildHistogram. It is null if no bins are given
+	private double leftPointOfInterval;
+	private double rightPointOfInterval;
+	private int[] histogram;
+
+	/**
+	 * It constructs an object which accumulates the number, the average, the standard deviation,
+	 * the minimum and the maximum of the values, but not their histogram.
+	 */
+	public OnlineStatistics() {
+	}
+
+	/**
+	 * It constructs an object which also accumulates the histogram of the values.
+	 *
+	 * @param leftPointOfInterval,  the left point of the interval divided in the bins
+	 * @param rightPointOfInterval, the right point of the interval divided in the bins
+	 * @param numberOfBins,         the number of bins in which the interval is divided
+	 */
+	public OnlineStatistics(double leftPointOfInterval, double rightPointOfInterval, int numberOfBins) {
+		this.leftPointOfInterval = leftPointOfInterval;
+		this.rightPointOfInterval = rightPointOfInterval;
+		histogram = new int[numberOfBins + 2];// two more because of outliers
+	}
+
+	/**
+	 * It updates the statistics with a new value.
+	 *
+	 * @param value, the new value
+	 */
+	public void add(double value) {
+		numberOfValues++;
+
+		double deviationFromOldAverage = value - average;
+		// average_n = average_{n-1} + (x_n - average_{n-1})/n, with Kahan compensation
+		double correctedIncrement = deviationFromOldAverage / numberOfValues - averageError;
+		double newAverage = average + correctedIncrement;
+		averageError = (newAverage - average) - correctedIncrement;
+		average = newAverage;
+
+		// S_n = S_{n-1} + (x_n - average_{n-1})(x_n - average_n), with Kahan compensation
+		double correctedDeviation = deviationFromOldAverage * (value - average) - sumOfSquaredDeviationsError;
+		double newSumOfSquaredDeviations = sumOfSquaredDeviations + correctedDeviation;
+		sumOfSquaredDeviationsError = (newSumOfSquaredDeviations - sumOfSquaredDeviations) - correctedDeviation;
+		sumOfSquaredDeviations = newSumOfSquaredDeviations;
+
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+
+		if (histogram != null) {
+			histogram[getBinIndex(value)] += 1;
+		}
+	}
+
+	/*
+	 * The index of the bin hosting value: the same as the one given by
+	 * UsefulMethodsMatricesAndVectors.buildHistogram
+	 */
+	private int getBinIndex(double value) {
+		int numberOfBins = histogram.length - 2;
+		if (value < leftPointOfInterval) {
+			return 0;
+		}
+		if (value > rightPointOfInterval) {
+			return numberOfBins + 1;
+		}
+		double binSize = (rightPointOfInterval - leftPointOfInterval) / numberOfBins;
+		return (int) ((value - leftPointOfInterval) / binSize) + 1;
+	}
+
+	/**
+	 * It updates the statistics with the ones of the values accumulated by another object, as if
+	 * they had been added to this object after the ones already added. The other object is not
+	 * modified. The histograms are merged only if they have the same interval and number of bins.
+	 *
+	 * @param other, the object accumulating the other values
+	 */
+	public void merge(OnlineStatistics other) {
+		if (other.numberOfValues == 0) {
+			return;
+		}
+		long totalNumberOfValues = numberOfValues + other.numberOfValues;
+		double differenceOfAverages = other.average - average;
+
+		// the formulas of Chan, Golub and LeVeque for the union of two samples
+		sumOfSquaredDeviations = sumOfSquaredDeviations + other.sumOfSquaredDeviations
+				+ differenceOfAverages * differenceOfAverages * ((double) numberOfValues * other.numberOfValues / totalNumberOfValues);
+		sumOfSquaredDeviationsError = 0;
+		average = average + differenceOfAverages * ((double) other.numberOfValues / totalNumberOfValues);
+		averageError = 0;
+		numberOfValues = totalNumberOfValues;
+
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+
+		if (histogram != null && hasHistogram(other.leftPointOfInterval, other.rightPointOfInterval,
+				other.histogram == null ? -1 : other.histogram.length - 2)) {
+			for (int i = 0; i < histogram.length; i++) {
+				histogram[i] += other.histogram[i];
+			}
+		}
+	}
+
+	/**
+	 * It returns a new object with the same interval and number of bins of the histogram as this
+	 * one, but with no values.
+	 *
+	 * @return a new, empty object with the same histogram bins
+	 */
+	public OnlineStatistics getEmptyCopy() {
+		return histogram == null ? new OnlineStatistics()
+				: new OnlineStatistics(leftPointOfInterval, rightPointOfInterval, histogram.length - 2);
+	}
+
+	/**
+	 * @return the number of values added
+	 */
+	public long getNumberOfValues() {
+		return numberOfValues;
+	}
+
+	/**
+	 * @return the average of the values
+	 */
+	public double getAverage() {
+		return average;
+	}
+
+	/**
+	 * It returns the variance of the values, normalized by the number of values minus one.
+	 *
+	 * @return the variance of the values
+	 */
+	public double getVariance() {
+		return sumOfSquaredDeviations / (numberOfValues - 1); // Notice the -1 !
+	}
+
+	/**
+	 * It returns the standard deviation of the values, normalized by the number of values minus one
+	 * as in UsefulMethodsMatricesAndVectors.getStandardDeviation.
+	 *
+	 * @return the standard deviation of the values
+	 */
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+
+	/**
+	 * It returns the standard error of the average of the values, i.e., their standard deviation
+	 * divided by the square root of their number.
+	 *
+	 * @return the standard error of the average
+	 */
+	public double getStandardError() {
+		return getStandardDeviation() / Math.sqrt(numberOfValues);
+	}
+
+	/**
+	 * @return the smallest of the values
+	 */
+	public double getMin() {
+		return min;
+	}
+
+	/**
+	 * @return the biggest of the values
+	 */
+	public double getMax() {
+		return max;
+	}
+
+	/**
+	 * It checks if the histogram of the values is accumulated with the given interval and number of bins.
+	 *
+	 * @param leftPointOfInterval,  the left point of the interval divided in the bins
+	 * @param rightPointOfInterval, the right point of the interval divided in the bins
+	 * @param numberOfBins,         the number of bins in which the interval is divided
+	 * @return true if the histogram is accumulated with these interval and number of bins
+	 */
+	public boolean hasHistogram(double leftPointOfInterval, double rightPointOfInterval, int numberOfBins) {
+		return histogram != null && this.leftPointOfInterval == leftPointOfInterval
+				&& this.rightPointOfInterval == rightPointOfInterval && histogram.length - 2 == numberOfBins;
+	}
+
+	/**
+	 * It returns the histogram of the values, in the same form as the one returned by
+	 * UsefulMethodsMatricesAndVectors.buildHistogram, or null if no bins were given in the constructor.
+	 *
+	 * @return the histogram of the values
+	 */
+	public int[] getHistogram() {
+		return histogram == null ? null : histogram.clone();
+	}
+}
@@ -0,0 +1,82 @@
+package com.andreamazzon.handout0;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import com.andreamazzon.handout2.DigitalOption;
+
+/**
+ * This class tests the parallel generation of the realizations of the binomial and trinomial
+ * models: the realizations must be exactly the same as the ones generated by one thread, whatever
+ * the number of threads.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class ParallelGenerationTest {
+
+	// model related parameters
+	private final double initialValue = 100;
+	private final double increaseIfUp = 1.5;
+	private final double decreaseIfDown = 0.5;
+	private final double interestRate = 0.1;
+	private final double probabilityStayTheSame = 0.3;
+
+	// simulation related parameters. The number of simulations is not a multiple of the number of blocks
+	private final int seed = 1897;
+	private final int lastTime = 20;
+	private final int numberOfSimulations = 10007;
+
+	private final int[] numbersOfThreads = { 2, 3, 8 };
+
+	@Test
+	public void testBinomialModel() {
+		double[][] sequentialRealizations = new BinomialModelSimulator(initialValue, increaseIfUp, decreaseIfDown,
+				interestRate, seed, lastTime, numberOfSimulations).getRealizations();
+
+		for (int numberOfThreads : numbersOfThreads) {
+			BinomialModelSimulator parallelSimulator = new BinomialModelSimulator(initialValue, increaseIfUp,
+					decreaseIfDown, interestRate, seed, lastTime, numberOfSimulations);
+			parallelSimulator.setNumberOfThreads(numberOfThreads);
+			Assert.assertArrayEquals(sequentialRealizations, parallelSimulator.getRealizations());
+		}
+	}
+
+	@Test
+	public void testTrinomialModel() {
+		double[][] sequentialRealizations = new TrinomialModelSimulator(initialValue, increaseIfUp, decreaseIfDown,
+				interestRate, probabilityStayTheSame, seed, lastTime, numberOfSimulations).getRealizations();
+
+		for (int numberOfThreads : numbersOfThreads) {
+			TrinomialModelSimulator parallelSimulator = new TrinomialModelSimulator(initialValue, increaseIfUp,
+					decreaseIfDown, interestRate, probabilityStayTheSame, seed, lastTime, numberOfSimulations);
+			parallelSimulator.setNumberOfThreads(numberOfThreads);
+			Assert.assertArrayEquals(sequentialRealizations, parallelSimulator.getRealizations());
+		}
+	}
+
+	@Test
+	public void testStreamedRealizations() {
+		BinomialModelSimulator simulator = new BinomialModelSimulator(initialValue, increaseIfUp, decreaseIfDown,
+				interestRate, seed, lastTime, numberOfSimulations);
+		double[][] realizations = simulator.getRealizations();
+		simulator.streamRealizations((realizationsAtGivenTime, time) -> Assert
+				.assertArrayEquals(realizations[time], realizationsAtGivenTime, 0.0));
+
+		// up to a given time: the following times are not passed to the consumer
+		int lastTimeToStream = 5;
+		int[] numberOfStreamedTimes = new int[1];
+		simulator.streamRealizations((realizationsAtGivenTime, time) -> {
+			Assert.assertArrayEquals(realizations[time], realizationsAtGivenTime, 0.0);
+			numberOfStreamedTimes[0]++;
+		}, lastTimeToStream);
+		Assert.assertEquals(lastTimeToStream + 1, numberOfStreamedTimes[0]);
+
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> simulator.streamRealizations((realizationsAtGivenTime, time) -> {
+				}, lastTime + 1));
+		// a maturity after the last time of the underlying
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> new DigitalOption(lastTime + 1, initialValue).getPayoff(simulator));
+	}
+}
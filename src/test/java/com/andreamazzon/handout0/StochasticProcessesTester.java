@@ -46,6 +46,22 @@ public class StochasticProcessesTester {
 
 		System.out.println("Discounted average of the process at time " + lastTime + ": " + discountedAverageBinomial);
 
+		/*
+		 * The same average computed by streaming the realizations: only one array of length numberOfSimulations
+		 * is used, and we look at it when the time is the last one
+		 */
+		double[] sumAtLastTime = new double[1];
+		binomialTester.streamRealizations((realizations, time) -> {
+			if (time == lastTime) {
+				for (double realization : realizations) {
+					sumAtLastTime[0] += realization;
+				}
+			}
+		});
+		System.out.println("Discounted average at time " + lastTime + " from the streamed realizations: "
+				+ discountFactor * sumAtLastTime[0] / numberOfSimulations);
+		System.out.println();
+
 		// then the analysis for the trinomial model
 
 		TrinomialModelSimulator trinomialTester = new TrinomialModelSimulator(initialValue, increaseIfUp,
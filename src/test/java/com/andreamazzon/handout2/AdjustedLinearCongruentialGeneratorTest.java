@@ -0,0 +1,72 @@
+package com.andreamazzon.handout2;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests the methods of AdjustedLinearCongruentialGenerator which compute the integers of
+ * the sequence without generating the ones before them, comparing them with the sequence returned by
+ * getRandomNumberSequence().
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class AdjustedLinearCongruentialGeneratorTest {
+
+	private final long seed = 2814749763100L;
+	private final int numberOfPseudoRandomNumbers = 100000;
+
+	@Test
+	public void testIntegerAtGivenIndex() {
+		AdjustedLinearCongruentialGenerator generator = new AdjustedLinearCongruentialGenerator(
+				numberOfPseudoRandomNumbers, seed);
+		long[] sequence = generator.getRandomNumberSequence();
+		for (int index = 0; index <= numberOfPseudoRandomNumbers; index++) {
+			Assert.assertEquals(sequence[index], generator.getIntegerAt(index));
+		}
+		Assert.assertThrows(IllegalArgumentException.class, () -> generator.getIntegerAt(-1));
+	}
+
+	@Test
+	public void testJump() {
+		long[] sequence = new AdjustedLinearCongruentialGenerator(numberOfPseudoRandomNumbers, seed)
+				.getRandomNumberSequence();
+
+		// this one stores no integer: all of them are computed after the jumps
+		AdjustedLinearCongruentialGenerator jumpingGenerator = new AdjustedLinearCongruentialGenerator(0, seed);
+		int index = 1;// index of the next integer
+		int steps = 1;
+		while (index + steps <= numberOfPseudoRandomNumbers) {
+			jumpingGenerator.jump(steps);
+			index += steps;
+			// after every jump we take some consecutive integers
+			for (int i = 0; i < 10 && index <= numberOfPseudoRandomNumbers; i++) {
+				Assert.assertEquals(sequence[index++], jumpingGenerator.getNextInteger());
+			}
+			steps = 2 * steps + 1;
+		}
+	}
+
+	@Test
+	public void testStreamingAndBulkFills() {
+		long[] sequence = new AdjustedLinearCongruentialGenerator(numberOfPseudoRandomNumbers, seed)
+				.getRandomNumberSequence();
+
+		// streaming mode: nothing is stored
+		AdjustedLinearCongruentialGenerator streamingGenerator = new AdjustedLinearCongruentialGenerator(seed);
+		long[] integers = new long[numberOfPseudoRandomNumbers + 1];
+		integers[1] = streamingGenerator.getNextInteger();
+		streamingGenerator.getNextIntegers(integers, 2, numberOfPseudoRandomNumbers - 1);
+		for (int index = 1; index <= numberOfPseudoRandomNumbers; index++) {
+			Assert.assertEquals(sequence[index], integers[index]);
+		}
+
+		// part of the numbers from the generated sequence, part computed
+		AdjustedLinearCongruentialGenerator shortGenerator = new AdjustedLinearCongruentialGenerator(100, seed);
+		double[] numbers = new double[numberOfPseudoRandomNumbers];
+		shortGenerator.getNextDoubles(numbers, 0, numberOfPseudoRandomNumbers);
+		for (int index = 1; index <= numberOfPseudoRandomNumbers; index++) {
+			Assert.assertEquals(sequence[index] / (double) shortGenerator.getModulus(), numbers[index - 1], 0.0);
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package com.andreamazzon.handout2;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class checks that the two ways of computing the remainder in AdjustedLinearCongruentialGenerator
+ * give the same integers, for the first 10^8 integers of the sequence. In order not to store all of
+ * them, the sequence computed correcting the overflow is generated in blocks, every block starting
+ * from the last integer of the previous one, and compared both with the sequence generated taking the
+ * last 48 bits from the same starting integer and with the integers given by the streaming mode.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class CongruenceMethodsTest {
+
+	private final long seed = 2814749763100L;
+	private final int numberOfPseudoRandomNumbers = 100_000_000;
+	private final int blockLength = 10_000_000;
+
+	@Test
+	public void testSameSequences() {
+		AdjustedLinearCongruentialGenerator streamingGenerator = new AdjustedLinearCongruentialGenerator(seed);
+		long[] integersWithBitMask = new long[blockLength];
+
+		long firstIntegerOfBlock = seed;// x[0] for the first block
+		for (int block = 0; block < numberOfPseudoRandomNumbers / blockLength; block++) {
+			long[] integersWithOverflowCorrection = new AdjustedLinearCongruentialGenerator(blockLength,
+					firstIntegerOfBlock, CongruenceMethods.OVERFLOWCORRECTION).getRandomNumberSequence();
+			// the same block generated in generate() by taking the last 48 bits
+			long[] sequenceWithBitMask = new AdjustedLinearCongruentialGenerator(blockLength, firstIntegerOfBlock,
+					CongruenceMethods.BITMASK).getRandomNumberSequence();
+			Assert.assertArrayEquals(integersWithOverflowCorrection, sequenceWithBitMask);
+			streamingGenerator.getNextIntegers(integersWithBitMask, 0, blockLength);
+			for (int index = 0; index < blockLength; index++) {
+				// the first entry of integersWithOverflowCorrection is the seed of the block
+				if (integersWithOverflowCorrection[index + 1] != integersWithBitMask[index]) {
+					Assert.fail("Different integers at index " + ((long) block * blockLength + index + 1));
+				}
+			}
+			firstIntegerOfBlock = integersWithOverflowCorrection[blockLength];
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package com.andreamazzon.handout4;
+
+import java.util.SplittableRandom;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import com.andreamazzon.usefulmethodsmatricesandvectors.OnlineStatistics;
+import com.andreamazzon.usefulmethodsmatricesandvectors.UsefulMethodsMatricesAndVectors;
+
+/**
+ * This class tests the statistics accumulated by OnlineStatistics, comparing them with the ones
+ * computed from the whole vector of values by UsefulMethodsMatricesAndVectors, also when two objects
+ * accumulating two parts of the vector are merged, and when they are accumulated while performing
+ * the computations of MonteCarloPi.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class OnlineStatisticsTest {
+
+	private final double leftPointOfInterval = 9.5;
+	private final double rightPointOfInterval = 10.5;
+	private final int numberOfBins = 10;
+
+	// values around 10, so that the rounding errors of a naive computation of the variance would matter
+	private double[] getValues(int numberOfValues) {
+		SplittableRandom randomGenerator = new SplittableRandom(1897);
+		double[] values = new double[numberOfValues];
+		for (int i = 0; i < numberOfValues; i++) {
+			values[i] = 10 + 0.3 * randomGenerator.nextGaussian();
+		}
+		return values;
+	}
+
+	private void assertStatistics(double[] values, OnlineStatistics statistics) {
+		double tolerance = 1E-12;
+		Assert.assertEquals(values.length, statistics.getNumberOfValues());
+		Assert.assertEquals(UsefulMethodsMatricesAndVectors.getAverage(values), statistics.getAverage(), tolerance);
+		Assert.assertEquals(UsefulMethodsMatricesAndVectors.getStandardDeviation(values),
+				statistics.getStandardDeviation(), tolerance);
+		Assert.assertEquals(UsefulMethodsMatricesAndVectors.getMin(values), statistics.getMin(), 0.0);
+		Assert.assertEquals(UsefulMethodsMatricesAndVectors.getMax(values), statistics.getMax(), 0.0);
+		Assert.assertArrayEquals(UsefulMethodsMatricesAndVectors.buildHistogram(values, leftPointOfInterval,
+				rightPointOfInterval, numberOfBins), statistics.getHistogram());
+	}
+
+	@Test
+	public void testStatistics() {
+		double[] values = getValues(100000);
+		OnlineStatistics statistics = new OnlineStatistics(leftPointOfInterval, rightPointOfInterval, numberOfBins);
+		for (double value : values) {
+			statistics.add(value);
+		}
+		assertStatistics(values, statistics);
+	}
+
+	@Test
+	public void testMerge() {
+		double[] values = getValues(100000);
+		int lengthOfFirstPart = 30001;
+
+		OnlineStatistics statistics = new OnlineStatistics(leftPointOfInterval, rightPointOfInterval, numberOfBins);
+		OnlineStatistics statisticsOfSecondPart = statistics.getEmptyCopy();
+		for (int i = 0; i < values.length; i++) {
+			(i < lengthOfFirstPart ? statistics : statisticsOfSecondPart).add(values[i]);
+		}
+		statistics.merge(statisticsOfSecondPart);
+		assertStatistics(values, statistics);
+	}
+
+	@Test
+	public void testMonteCarloComputations() {
+		int numberOfComputations = 1000;
+		int numberOfDrawings = 1000;
+		double leftPointHistogram = Math.PI - Math.PI / 100;
+		double rightPointHistogram = Math.PI + Math.PI / 100;
+		int binsNumber = 11;
+
+		for (int numberOfThreads = 1; numberOfThreads <= 4; numberOfThreads += 3) {
+			MonteCarloPi simulator = new MonteCarloPi(numberOfComputations, numberOfDrawings);
+			simulator.setNumberOfThreads(numberOfThreads);
+			simulator.setHistogramBins(leftPointHistogram, rightPointHistogram, binsNumber);
+			double[] computations = simulator.getComputations();
+
+			Assert.assertEquals(UsefulMethodsMatricesAndVectors.getAverage(computations),
+					simulator.getAverageComputations(), 1E-12);
+			Assert.assertEquals(UsefulMethodsMatricesAndVectors.getStandardDeviation(computations),
+					simulator.getStandardDeviationComputations(), 1E-12);
+			Assert.assertArrayEquals(new double[] { UsefulMethodsMatricesAndVectors.getMin(computations),
+					UsefulMethodsMatricesAndVectors.getMax(computations) }, simulator.getMinAndMaxComputations(), 0.0);
+			// the accumulated histogram and the one computed from the vector
+			Assert.assertArrayEquals(UsefulMethodsMatricesAndVectors.buildHistogram(computations, leftPointHistogram,
+					rightPointHistogram, binsNumber),
+					simulator.getHistogramComputations(leftPointHistogram, rightPointHistogram, binsNumber));
+			Assert.assertArrayEquals(UsefulMethodsMatricesAndVectors.buildHistogram(computations, 3, 3.3, 5),
+					simulator.getHistogramComputations(3, 3.3, 5));
+		}
+	}
+}
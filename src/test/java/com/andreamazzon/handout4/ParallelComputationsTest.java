@@ -0,0 +1,106 @@
+package com.andreamazzon.handout4;
+
+import java.util.SplittableRandom;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests the parallel Monte-Carlo computations of MonteCarloEvaluationsAbstract: the
+ * computations must be exactly the same as the ones performed by one thread, whatever the number of
+ * threads, and the same for two objects constructed with the same parameters and seed.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class ParallelComputationsTest {
+
+	// the number of computations is not a multiple of the number of blocks
+	private final int numberOfComputations = 101;
+	private final int numberOfDrawings = 10000;
+
+	private final int[] numbersOfThreads = { 2, 3, 8 };
+
+	@Test
+	public void testPi() {
+		double[] sequentialComputations = new MonteCarloPi(numberOfComputations, numberOfDrawings).getComputations();
+
+		for (int numberOfThreads : numbersOfThreads) {
+			MonteCarloPi parallelComputations = new MonteCarloPi(numberOfComputations, numberOfDrawings);
+			parallelComputations.setNumberOfThreads(numberOfThreads);
+			Assert.assertArrayEquals(sequentialComputations, parallelComputations.getComputations(), 0.0);
+		}
+	}
+
+	@Test
+	public void testPiFromHypersphere() {
+		int dimension = 5;
+		double[] sequentialComputations = new MonteCarloPiFromHypersphere(numberOfComputations, numberOfDrawings,
+				dimension).getComputations();
+
+		for (int numberOfThreads : numbersOfThreads) {
+			MonteCarloPiFromHypersphere parallelComputations = new MonteCarloPiFromHypersphere(numberOfComputations,
+					numberOfDrawings, dimension);
+			parallelComputations.setNumberOfThreads(numberOfThreads);
+			Assert.assertArrayEquals(sequentialComputations, parallelComputations.getComputations(), 0.0);
+		}
+	}
+
+	@Test
+	public void testIndependentComputations() {
+		double[] computations = new MonteCarloIntegrationPowerFunction(2.0, numberOfComputations, numberOfDrawings)
+				.getComputations();
+
+		// every computation has its own stream of random numbers, so two computations are (almost surely) different
+		for (int i = 1; i < numberOfComputations; i++) {
+			Assert.assertNotEquals(computations[i - 1], computations[i], 0.0);
+		}
+	}
+
+	@Test
+	public void testSeed() {
+		long seed = 1234;
+		double[] computations = new MonteCarloPi(numberOfComputations, numberOfDrawings, seed).getComputations();
+
+		Assert.assertArrayEquals(computations,
+				new MonteCarloPi(numberOfComputations, numberOfDrawings, seed).getComputations(), 0.0);
+		Assert.assertNotEquals(computations[0],
+				new MonteCarloPi(numberOfComputations, numberOfDrawings, seed + 1).getComputations()[0], 0.0);
+	}
+
+	@Test
+	public void testMersenneTwister() {
+		int dimension = 3;
+		long seed = 1234;
+		double[] sequentialComputations = new MonteCarloPiFromHypersphere(numberOfComputations, numberOfDrawings,
+				dimension, seed, MersenneTwisterRandomGenerator::new).getComputations();
+
+		// every computation constructs its own Mersenne Twister, so the threads do not share it
+		for (int numberOfThreads : numbersOfThreads) {
+			MonteCarloPiFromHypersphere parallelComputations = new MonteCarloPiFromHypersphere(numberOfComputations,
+					numberOfDrawings, dimension, seed, MersenneTwisterRandomGenerator::new);
+			parallelComputations.setNumberOfThreads(numberOfThreads);
+			Assert.assertArrayEquals(sequentialComputations, parallelComputations.getComputations(), 0.0);
+		}
+		Assert.assertEquals(Math.PI, average(sequentialComputations), 1E-2);
+	}
+
+	@Test
+	public void testPointsInBlocks() {
+		// the number of points is not a multiple of the number of points of a block
+		int numberOfPoints = 10007;
+		for (int dimension = 2; dimension <= 20; dimension++) {
+			MonteCarloPiFromHypersphere simulator = new MonteCarloPiFromHypersphere(1, numberOfPoints, dimension);
+			Assert.assertEquals(simulator.piMonteCarloGeneralDimensionPointByPoint(new SplittableRandom(dimension)),
+					simulator.piMonteCarloGeneralDimension(new SplittableRandom(dimension)), 0.0);
+		}
+	}
+
+	private static double average(double[] computations) {
+		double sum = 0;
+		for (double computation : computations) {
+			sum += computation;
+		}
+		return sum / computations.length;
+	}
+}
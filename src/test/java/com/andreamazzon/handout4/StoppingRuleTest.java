@@ -0,0 +1,75 @@
+package com.andreamazzon.handout4;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests the computations of MonteCarloPi performed in batches until a stopping rule is
+ * satisfied or a time budget expires.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class StoppingRuleTest {
+
+	private final int batchSize = 100;
+	private final int numberOfDrawings = 1000;
+	private final long timeBudgetInMilliseconds = 60000;
+
+	@Test
+	public void testTargetHalfWidth() {
+		double targetHalfWidth = 2E-3;
+		double confidenceLevel = 0.95;
+
+		MonteCarloPi simulator = new MonteCarloPi(batchSize, numberOfDrawings);
+		simulator.setTargetHalfWidthOfConfidenceInterval(targetHalfWidth, confidenceLevel, timeBudgetInMilliseconds);
+		double[] computations = simulator.getComputations();
+
+		int numberOfComputations = simulator.getNumberOfMonteCarloComputations();
+		Assert.assertEquals(numberOfComputations, computations.length);
+		Assert.assertEquals(0, numberOfComputations % batchSize);
+		// one batch is not enough, and we stop as soon as the target is reached
+		Assert.assertTrue(numberOfComputations > batchSize);
+		Assert.assertTrue(simulator.getHalfWidthOfConfidenceInterval(confidenceLevel) <= targetHalfWidth);
+		Assert.assertEquals(Math.PI, simulator.getAverageComputations(), 2 * targetHalfWidth);
+
+		// the first batch is the same as the computations performed without stopping rule
+		Assert.assertArrayEquals(new MonteCarloPi(batchSize, numberOfDrawings).getComputations(),
+				Arrays.copyOf(computations, batchSize), 0.0);
+
+		// and the computations do not depend on the number of threads
+		MonteCarloPi parallelSimulator = new MonteCarloPi(batchSize, numberOfDrawings);
+		parallelSimulator.setNumberOfThreads(4);
+		parallelSimulator.setTargetHalfWidthOfConfidenceInterval(targetHalfWidth, confidenceLevel,
+				timeBudgetInMilliseconds);
+		Assert.assertArrayEquals(computations, parallelSimulator.getComputations(), 0.0);
+	}
+
+	@Test
+	public void testTargetAbsoluteError() {
+		double targetAbsoluteError = 1E-4;
+
+		MonteCarloPi simulator = new MonteCarloPi(batchSize, numberOfDrawings);
+		simulator.setTargetAbsoluteError(targetAbsoluteError, timeBudgetInMilliseconds);
+
+		Assert.assertEquals(Math.PI, simulator.getAverageComputations(), targetAbsoluteError);
+	}
+
+	@Test
+	public void testTimeBudget() {
+		long shortTimeBudgetInMilliseconds = 200;
+
+		// the target cannot be reached, so we stop when the time budget expires
+		MonteCarloPi simulator = new MonteCarloPi(batchSize, numberOfDrawings);
+		simulator.setTargetHalfWidthOfConfidenceInterval(0.0, 0.95, shortTimeBudgetInMilliseconds);
+
+		long startTime = System.currentTimeMillis();
+		simulator.getComputations();
+		long elapsedTime = System.currentTimeMillis() - startTime;
+
+		Assert.assertTrue(simulator.getNumberOfMonteCarloComputations() >= batchSize);
+		Assert.assertTrue(elapsedTime < 10 * shortTimeBudgetInMilliseconds);
+	}
+}
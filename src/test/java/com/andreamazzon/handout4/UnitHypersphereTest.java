@@ -0,0 +1,66 @@
+package com.andreamazzon.handout4;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests the computation of pi from the volume of the unit hypersphere done by
+ * UnitHypersphere, also in dimensions where the factorials overflow.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class UnitHypersphereTest {
+
+	@Test
+	public void testLogFactorial() {
+		double factorial = 1;
+		for (int n = 0; n <= 20; n++) {
+			factorial *= Math.max(n, 1);
+			Assert.assertEquals(Math.log(factorial), UnitHypersphere.getLogFactorial(n), 1E-12);
+		}
+		// log(n!) = log((n-1)!) + log(n), also between the table and the values which are not tabulated
+		for (int n = 1000; n <= 1050; n++) {
+			Assert.assertEquals(UnitHypersphere.getLogFactorial(n - 1) + Math.log(n),
+					UnitHypersphere.getLogFactorial(n), 1E-9);
+		}
+	}
+
+	@Test
+	public void testPiFromExactVolume() {
+		for (int dimension = 2; dimension <= 300; dimension++) {
+			double volume = UnitHypersphere.getVolume(dimension);
+			Assert.assertEquals("dimension " + dimension, Math.PI, UnitHypersphere.getPiFromVolume(volume, dimension),
+					1E-12);
+		}
+	}
+
+	@Test
+	public void testKnownVolumes() {
+		Assert.assertEquals(Math.PI, UnitHypersphere.getVolume(2), 1E-14);
+		Assert.assertEquals(4.0 / 3.0 * Math.PI, UnitHypersphere.getVolume(3), 1E-14);
+		Assert.assertEquals(Math.PI * Math.PI / 2, UnitHypersphere.getVolume(4), 1E-14);
+		Assert.assertEquals(8.0 / 15.0 * Math.PI * Math.PI, UnitHypersphere.getVolume(5), 1E-14);
+	}
+
+	// the factorial used before UnitHypersphere, correct until 12!
+	private static int factorial(int n) {
+		return n < 1 ? 1 : n * factorial(n - 1);
+	}
+
+	@Test
+	public void testSameAsWithFactorials() {
+		double volume = 0.5;
+		for (int dimension = 2; dimension <= 12; dimension++) {
+			double piWithFactorials;
+			if (dimension % 2 == 0) {
+				int k = dimension / 2;
+				piWithFactorials = Math.pow(volume * factorial(k), 1.0 / k);
+			} else {
+				int k = (dimension - 1) / 2;
+				piWithFactorials = Math.pow(volume * factorial(dimension) / (2.0 * factorial(k)), 1.0 / k) / 4.0;
+			}
+			Assert.assertEquals(piWithFactorials, UnitHypersphere.getPiFromVolume(volume, dimension), 1E-12);
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package com.andreamazzon.handout5;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests the computation of the L2 star discrepancy and of the lower bound of the star
+ * discrepancy of DiscrepancyMultiDimension: against explicit formulas for one point and for points in
+ * one dimension, against the star discrepancy computed by DiscrepancyOneDimension, and checking that the
+ * results do not depend on the number of threads. It also checks that the Halton and Sobol sequences get
+ * a smaller L2 star discrepancy than random points.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class DiscrepancyMultiDimensionTest {
+
+	private double[] getRandomPoints(int numberOfPoints, int dimension, long seed) {
+		SplittableRandom randomGenerator = new SplittableRandom(seed);
+		double[] coordinates = new double[numberOfPoints * dimension];
+		for (int i = 0; i < coordinates.length; i++) {
+			coordinates[i] = randomGenerator.nextDouble();
+		}
+		return coordinates;
+	}
+
+	@Test
+	public void testL2StarDiscrepancyOfOnePoint() {
+		// the integral of (1_{x < y_1, z < y_2} - y_1 y_2)^2 over [0,1]^2
+		double x = 0.3;
+		double z = 0.8;
+		double squaredDiscrepancy = 1.0 / 9 - (1 - x * x) * (1 - z * z) / 2 + (1 - x) * (1 - z);
+		DiscrepancyMultiDimension discrepancy = new DiscrepancyMultiDimension(new double[] { x, z }, 1, 2);
+		Assert.assertEquals(Math.sqrt(squaredDiscrepancy), discrepancy.getL2StarDiscrepancy(), 1E-15);
+	}
+
+	@Test
+	public void testL2StarDiscrepancyInOneDimension() {
+		// in one dimension, the squared L2 star discrepancy is 1/(12n^2) + 1/n sum_i (x_(i) - (2i-1)/(2n))^2
+		int numberOfPoints = 1000;
+		double[] points = getRandomPoints(numberOfPoints, 1, 1897);
+		double[] sortedPoints = points.clone();
+		Arrays.sort(sortedPoints);
+		double squaredDiscrepancy = 1.0 / (12.0 * numberOfPoints * numberOfPoints);
+		for (int i = 0; i < numberOfPoints; i++) {
+			double difference = sortedPoints[i] - (2.0 * i + 1) / (2 * numberOfPoints);
+			squaredDiscrepancy += difference * difference / numberOfPoints;
+		}
+		DiscrepancyMultiDimension discrepancy = new DiscrepancyMultiDimension(points, numberOfPoints, 1);
+		Assert.assertEquals(Math.sqrt(squaredDiscrepancy), discrepancy.getL2StarDiscrepancy(), 1E-12);
+	}
+
+	@Test
+	public void testLowerBoundInOneDimension() {
+		// with enough boxes, all the critical boxes are checked and the bound is the star discrepancy
+		int numberOfPoints = 50;
+		double[] points = getRandomPoints(numberOfPoints, 1, 1897);
+		DiscrepancyMultiDimension discrepancy = new DiscrepancyMultiDimension(points, numberOfPoints, 1);
+		double starDiscrepancy = DiscrepancyOneDimension.getStarDiscrepancyAndDiscrepancy(points)[0];
+		Assert.assertEquals(starDiscrepancy, discrepancy.getStarDiscrepancyLowerBound(5000, 3), 1E-15);
+	}
+
+	@Test
+	public void testLowerBoundIsBelowUpperBound() {
+		/*
+		 * For the first 2^m points of the Sobol sequence in two dimensions, which are a (0,m,2)-net, the
+		 * star discrepancy is at most (m/2 + 3/2)/2^m by the bound of Niederreiter for nets in two dimensions.
+		 */
+		int m = 8;
+		int numberOfPoints = 1 << m;
+		DiscrepancyMultiDimension discrepancy = new DiscrepancyMultiDimension(new SobolSequenceInBlocks(2),
+				numberOfPoints);
+		double lowerBound = discrepancy.getStarDiscrepancyLowerBound(10000, 3);
+		Assert.assertTrue(lowerBound > 0);
+		Assert.assertTrue(lowerBound <= (m / 2.0 + 1.5) / numberOfPoints);
+		// the L2 norm of the local discrepancy cannot be bigger than its supremum
+		Assert.assertTrue(discrepancy.getL2StarDiscrepancy() <= (m / 2.0 + 1.5) / numberOfPoints);
+	}
+
+	@Test
+	public void testSameResultsInParallel() {
+		int numberOfPoints = 1001;
+		int dimension = 5;
+		double[] points = getRandomPoints(numberOfPoints, dimension, 1897);
+		DiscrepancyMultiDimension discrepancy = new DiscrepancyMultiDimension(points, numberOfPoints, dimension);
+		double l2Discrepancy = discrepancy.getL2StarDiscrepancy();
+		double lowerBound = discrepancy.getStarDiscrepancyLowerBound(1000, 3);
+
+		discrepancy.setNumberOfThreads(4);
+		Assert.assertEquals(l2Discrepancy, discrepancy.getL2StarDiscrepancy(), 0.0);
+		Assert.assertEquals(lowerBound, discrepancy.getStarDiscrepancyLowerBound(1000, 3), 0.0);
+	}
+
+	@Test
+	public void testLowDiscrepancySequencesAreBetterThanRandomPoints() {
+		int numberOfPoints = 4096;
+		int dimension = 5;
+		DiscrepancyMultiDimension randomPoints = new DiscrepancyMultiDimension(
+				getRandomPoints(numberOfPoints, dimension, 1897), numberOfPoints, dimension);
+		DiscrepancyMultiDimension haltonPoints = new DiscrepancyMultiDimension(
+				new HaltonSequenceInBlocks(new int[] { 2, 3, 5, 7, 11 }), numberOfPoints);
+		DiscrepancyMultiDimension sobolPoints = new DiscrepancyMultiDimension(new SobolSequenceInBlocks(dimension),
+				numberOfPoints);
+		randomPoints.setNumberOfThreads(4);
+		haltonPoints.setNumberOfThreads(4);
+		sobolPoints.setNumberOfThreads(4);
+
+		double randomDiscrepancy = randomPoints.getL2StarDiscrepancy();
+		// for random points, the expected squared L2 star discrepancy is (2^{-d} - 3^{-d})/n
+		Assert.assertEquals(Math.sqrt((Math.pow(2, -dimension) - Math.pow(3, -dimension)) / numberOfPoints),
+				randomDiscrepancy, 0.5 * randomDiscrepancy);
+		Assert.assertTrue(haltonPoints.getL2StarDiscrepancy() < randomDiscrepancy / 2);
+		Assert.assertTrue(sobolPoints.getL2StarDiscrepancy() < randomDiscrepancy / 2);
+	}
+}
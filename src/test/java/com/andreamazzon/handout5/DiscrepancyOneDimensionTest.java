@@ -0,0 +1,101 @@
+package com.andreamazzon.handout5;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests that the discrepancy computed by getDiscrepancy of DiscrepancyOneDimension, whose
+ * cost is linear after sorting, is the same as the one computed by checking all the intervals, both for
+ * the sets of TestDiscrepancy and for random sets, also containing the points 0 and 1. It also tests
+ * that getStarDiscrepancyAndDiscrepancy gives the same discrepancies without modifying the set, also
+ * when the set is big enough to be sorted in parallel.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class DiscrepancyOneDimensionTest {
+
+	private final double tolerance = 1E-12;
+
+	private void checkSameDiscrepancy(double[] set) {
+		double expectedDiscrepancy = DiscrepancyOneDimension.getDiscrepancyCheckingAllIntervals(set.clone());
+		Assert.assertEquals(expectedDiscrepancy, DiscrepancyOneDimension.getDiscrepancy(set.clone()), tolerance);
+
+		double[] copyOfSet = set.clone();
+		double[] discrepancies = DiscrepancyOneDimension.getStarDiscrepancyAndDiscrepancy(set);
+		Assert.assertArrayEquals(copyOfSet, set, 0.0);
+		Assert.assertEquals(DiscrepancyOneDimension.getStarDiscrepancy(copyOfSet), discrepancies[0], 0.0);
+		Assert.assertEquals(expectedDiscrepancy, discrepancies[1], tolerance);
+	}
+
+	private double[] getRandomSet(int numberOfPoints, SplittableRandom randomGenerator) {
+		double[] set = new double[numberOfPoints];
+		for (int i = 0; i < numberOfPoints; i++) {
+			set[i] = randomGenerator.nextDouble();
+		}
+		return set;
+	}
+
+	@Test
+	public void testGivenSets() {
+		checkSameDiscrepancy(new double[] { 0.125, 0.25, 0.5, 0.75 });
+		checkSameDiscrepancy(new double[] { 0.25, 0.5, 5.0 / 8, 0.75 });
+		checkSameDiscrepancy(new double[] { 0.2, 0.21, 0.22, 0.23, 0.24, 0.65, 0.76, 0.87 });
+		checkSameDiscrepancy(new double[] { 0.1, 0.27 });
+		checkSameDiscrepancy(new double[] { 0.3 });
+		checkSameDiscrepancy(new double[] { 0, 0.5, 1 });
+		checkSameDiscrepancy(new double[] { 0.5, 0.5, 0.5 });
+	}
+
+	@Test
+	public void testRandomSets() {
+		SplittableRandom randomGenerator = new SplittableRandom(1897);
+		for (int numberOfPoints = 1; numberOfPoints <= 2000; numberOfPoints = numberOfPoints * 3 / 2 + 1) {
+			for (int trial = 0; trial < 10; trial++) {
+				double[] set = getRandomSet(numberOfPoints, randomGenerator);
+				// sometimes the ends of the interval are in the set
+				if (trial % 3 == 1) {
+					set[0] = 0;
+				}
+				if (trial % 3 == 2) {
+					set[numberOfPoints - 1] = 1;
+				}
+				checkSameDiscrepancy(set);
+			}
+		}
+	}
+
+	@Test
+	public void testVanDerCorputSequence() {
+		// a set of low discrepancy, where no single interval dominates the others
+		int numberOfPoints = 1000;
+		double[] set = new double[numberOfPoints];
+		for (int i = 0; i < numberOfPoints; i++) {
+			set[i] = HaltonSequenceInBlocks.getHaltonNumber(i, 2);
+		}
+		checkSameDiscrepancy(set);
+	}
+
+	@Test
+	public void testBigSetSortedInParallel() {
+		// bigger than the size from which Arrays.parallelSort splits the array
+		checkSameDiscrepancy(getRandomSet(20000, new SplittableRandom(1897)));
+	}
+
+	@Test
+	public void testReusedArrayForSorting() {
+		SplittableRandom randomGenerator = new SplittableRandom(1897);
+		double[] sortedSet = new double[1000];
+		for (int numberOfPoints : new int[] { 1000, 10, 500 }) {
+			double[] set = getRandomSet(numberOfPoints, randomGenerator);
+			double[] discrepancies = DiscrepancyOneDimension.getStarDiscrepancyAndDiscrepancy(set, sortedSet);
+			Assert.assertArrayEquals(DiscrepancyOneDimension.getStarDiscrepancyAndDiscrepancy(set), discrepancies, 0.0);
+			double[] sortedCopyOfSet = set.clone();
+			Arrays.sort(sortedCopyOfSet);
+			Assert.assertArrayEquals(sortedCopyOfSet, Arrays.copyOf(sortedSet, numberOfPoints), 0.0);
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package com.andreamazzon.handout5;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import com.andreamazzon.handout4.UnitHypersphere;
+
+import net.finmath.randomnumbers.HaltonSequence;
+
+/**
+ * This class tests that the points of the Halton sequence generated in blocks by HaltonSequenceInBlocks
+ * are the same as the ones generated one at a time by the Halton sequence of the finmath library, and
+ * that the approximation of pi of PiFromHypersphereWithHaltonSequence does not depend on the number of
+ * threads.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class HaltonSequenceInBlocksTest {
+
+	private final int[] base = { 2, 3, 5, 7, 11 };
+
+	@Test
+	public void testSamePointsAsFinmath() {
+		int numberOfPoints = 10000;
+		int dimension = base.length;
+		HaltonSequence haltonSequence = new HaltonSequence(base);
+
+		double[] coordinates = new double[numberOfPoints * dimension];
+		new HaltonSequenceInBlocks(base).fillBlock(0, numberOfPoints, coordinates);
+		for (int i = 0; i < numberOfPoints; i++) {
+			double[] point = haltonSequence.getNext();
+			for (int j = 0; j < dimension; j++) {
+				Assert.assertEquals(point[j], coordinates[j * numberOfPoints + i], 0.0);
+			}
+		}
+	}
+
+	@Test
+	public void testBlockStartingFromGivenIndex() {
+		long firstIndex = 123456789L;
+		int numberOfPoints = 100;
+		int dimension = base.length;
+		HaltonSequence haltonSequence = new HaltonSequence(base);
+
+		double[] coordinates = new double[numberOfPoints * dimension];
+		new HaltonSequenceInBlocks(base).fillBlock(firstIndex, numberOfPoints, coordinates);
+		for (int i = 0; i < numberOfPoints; i++) {
+			for (int j = 0; j < dimension; j++) {
+				Assert.assertEquals(haltonSequence.getHaltonNumber(firstIndex + i, j), coordinates[j * numberOfPoints + i],
+						0.0);
+			}
+		}
+	}
+
+	@Test
+	public void testPiInParallel() {
+		// not a multiple of the number of points of a block
+		int numberOfSamplePoints = 100003;
+
+		// the approximation given by the points of the Halton sequence of the finmath library, one at a time
+		HaltonSequence haltonSequence = new HaltonSequence(base);
+		int numberOfPointsInsideHypersphere = 0;
+		for (int i = 0; i < numberOfSamplePoints; i++) {
+			double[] point = haltonSequence.getNext();
+			double sumOfSquares = 0;
+			for (double coordinate : point) {
+				sumOfSquares += 2 * (coordinate - 0.5) * 2 * (coordinate - 0.5);
+			}
+			numberOfPointsInsideHypersphere += sumOfSquares <= 1 ? 1 : 0;
+		}
+
+		double expectedPi = UnitHypersphere.getPiFromVolume(
+				Math.pow(2.0, base.length) * numberOfPointsInsideHypersphere / numberOfSamplePoints, base.length);
+
+		double pi = new PiFromHypersphereWithHaltonSequence(numberOfSamplePoints, base).piHalton();
+		Assert.assertEquals(expectedPi, pi, 0.0);
+
+		for (int numberOfThreads = 2; numberOfThreads <= 8; numberOfThreads *= 2) {
+			PiFromHypersphereWithHaltonSequence parallelPi = new PiFromHypersphereWithHaltonSequence(numberOfSamplePoints,
+					base);
+			parallelPi.setNumberOfThreads(numberOfThreads);
+			Assert.assertEquals(pi, parallelPi.piHalton(), 0.0);
+		}
+	}
+}
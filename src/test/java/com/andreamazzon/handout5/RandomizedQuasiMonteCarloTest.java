@@ -0,0 +1,126 @@
+package com.andreamazzon.handout5;
+
+import java.util.List;
+import java.util.function.LongFunction;
+import java.util.function.ToDoubleFunction;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import com.andreamazzon.handout4.UnitHypersphere;
+
+/**
+ * This class tests the Sobol sequence, the scrambled and randomly shifted sequences and the
+ * approximation of the volume of the unit hypersphere by randomized quasi Monte-Carlo, whose error is
+ * estimated from the replicates.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class RandomizedQuasiMonteCarloTest {
+
+	// true if among the points there is exactly one in every interval [i/numberOfPoints,(i+1)/numberOfPoints)
+	private static boolean isStratified(double[] coordinates, int offset, int numberOfPoints) {
+		boolean[] isIntervalOccupied = new boolean[numberOfPoints];
+		for (int i = 0; i < numberOfPoints; i++) {
+			int interval = (int) (coordinates[offset + i] * numberOfPoints);
+			if (isIntervalOccupied[interval]) {
+				return false;
+			}
+			isIntervalOccupied[interval] = true;
+		}
+		return true;
+	}
+
+	@Test
+	public void testSobolFirstPoints() {
+		double[] coordinates = new double[4 * 2];
+		new SobolSequenceInBlocks(2).fillBlock(0, 4, coordinates);
+		Assert.assertArrayEquals(new double[] { 0, 0.5, 0.75, 0.25, 0, 0.5, 0.25, 0.75 }, coordinates, 0.0);
+	}
+
+	@Test
+	public void testSobolStratification() {
+		int numberOfPoints = 1024;
+		int dimension = SobolSequenceInBlocks.maximumDimension;
+		double[] coordinates = new double[numberOfPoints * dimension];
+
+		// also with a random digital shift, every coordinate of the first 2^m points is stratified
+		for (SobolSequenceInBlocks sobolSequence : new SobolSequenceInBlocks[] {
+				new SobolSequenceInBlocks(dimension), new SobolSequenceInBlocks(dimension, 1897) }) {
+			sobolSequence.fillBlock(0, numberOfPoints, coordinates);
+			for (int j = 0; j < dimension; j++) {
+				Assert.assertTrue("coordinate " + j, isStratified(coordinates, j * numberOfPoints, numberOfPoints));
+			}
+		}
+	}
+
+	@Test
+	public void testSobolBlockStartingFromGivenIndex() {
+		int dimension = 7;
+		long firstIndex = 1000003;
+		int numberOfPoints = 300;
+		SobolSequenceInBlocks sobolSequence = new SobolSequenceInBlocks(dimension, 1897);
+
+		double[] allCoordinates = new double[(int) (firstIndex + numberOfPoints) * dimension];
+		sobolSequence.fillBlock(0, (int) firstIndex + numberOfPoints, allCoordinates);
+		double[] coordinates = new double[numberOfPoints * dimension];
+		sobolSequence.fillBlock(firstIndex, numberOfPoints, coordinates);
+		for (int j = 0; j < dimension; j++) {
+			for (int i = 0; i < numberOfPoints; i++) {
+				Assert.assertEquals(allCoordinates[j * (int) (firstIndex + numberOfPoints) + (int) firstIndex + i],
+						coordinates[j * numberOfPoints + i], 0.0);
+			}
+		}
+	}
+
+	@Test
+	public void testScrambledHaltonStratification() {
+		int[] base = { 2, 3, 5 };
+		int[] numbersOfPoints = { 1024, 729, 625 };// a power of every element of the base
+		QuasiRandomSequenceInBlocks scrambledHalton = new ScrambledHaltonSequenceInBlocks(base, 1897);
+		for (int j = 0; j < base.length; j++) {
+			double[] coordinates = new double[numbersOfPoints[j] * base.length];
+			scrambledHalton.fillBlock(0, numbersOfPoints[j], coordinates);
+			Assert.assertTrue("coordinate " + j, isStratified(coordinates, j * numbersOfPoints[j], numbersOfPoints[j]));
+		}
+	}
+
+	@Test
+	public void testVolumeOfHypersphere() {
+		int dimension = 5;
+		int numberOfPoints = 1 << 14;
+		int numberOfReplicates = 32;
+		long seed = 1897;
+		int[] base = { 2, 3, 5, 7, 11 };
+
+		// 1_{(2*(x_1-0.5))^2+...+(2*(x_d-0.5))^2<=1}: its integral is the volume of the unit hypersphere over 2^d
+		ToDoubleFunction<double[]> indicatorOfHypersphere = point -> {
+			double sumOfSquares = 0;
+			for (double coordinate : point) {
+				sumOfSquares += 2 * (coordinate - 0.5) * 2 * (coordinate - 0.5);
+			}
+			return sumOfSquares <= 1 ? 1.0 : 0.0;
+		};
+		double exactIntegral = UnitHypersphere.getVolume(dimension) / Math.pow(2, dimension);
+
+		// the standard error of plain Monte-Carlo with the same total number of points
+		double standardErrorMonteCarlo = Math.sqrt(exactIntegral * (1 - exactIntegral)
+				/ ((double) numberOfPoints * numberOfReplicates));
+
+		List<LongFunction<QuasiRandomSequenceInBlocks>> randomizations = List.of(
+				s -> new SobolSequenceInBlocks(dimension, s),
+				s -> new ScrambledHaltonSequenceInBlocks(base, s),
+				s -> new RandomlyShiftedSequenceInBlocks(new HaltonSequenceInBlocks(base), s),
+				s -> new RandomlyShiftedSequenceInBlocks(new SobolSequenceInBlocks(dimension), s));
+
+		for (LongFunction<QuasiRandomSequenceInBlocks> randomization : randomizations) {
+			RandomizedQuasiMonteCarloIntegration integration = new RandomizedQuasiMonteCarloIntegration(randomization,
+					indicatorOfHypersphere, numberOfPoints, numberOfReplicates, seed);
+			double standardError = integration.getStandardError();
+			Assert.assertEquals(exactIntegral, integration.getIntegral(), 4 * standardError);
+			// the integrand is not continuous, so the gain is moderate: about a factor 2-3 here
+			Assert.assertTrue(standardError < 0.75 * standardErrorMonteCarlo);
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package com.andreamazzon.handout6;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests the generation of many realizations at once by the methods generate(double[], int,
+ * int) and generate(int) of NormalRandomVariable and ExponentialRandomVariable: only the given part of
+ * the array must be written, the realizations must have the right mean and standard deviation, and the
+ * array returned by generate(int) must be reused. It also checks that getSampleMean does not allocate
+ * memory when it is called again and again with the same sample size.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class BulkGenerationTest {
+
+	private final int numberOfRealizations = 1_000_000;
+
+	private void checkRealizations(RandomVariableInterface randomVariable) {
+		int offset = 10;
+		double[] realizations = new double[offset + numberOfRealizations + offset];
+		randomVariable.generate(realizations, offset, numberOfRealizations);
+		for (int i = 0; i < offset; i++) {
+			Assert.assertEquals(0.0, realizations[i], 0.0);
+			Assert.assertEquals(0.0, realizations[offset + numberOfRealizations + i], 0.0);
+		}
+
+		double sum = 0;
+		double sumOfSquares = 0;
+		for (int i = offset; i < offset + numberOfRealizations; i++) {
+			sum += realizations[i];
+			sumOfSquares += realizations[i] * realizations[i];
+		}
+		double mean = sum / numberOfRealizations;
+		double standardDeviation = Math.sqrt(sumOfSquares / numberOfRealizations - mean * mean);
+		// five standard errors
+		Assert.assertEquals(randomVariable.getAnalyticMean(), mean,
+				5 * randomVariable.getAnalyticStdDeviation() / Math.sqrt(numberOfRealizations));
+		Assert.assertEquals(randomVariable.getAnalyticStdDeviation(), standardDeviation,
+				0.01 * randomVariable.getAnalyticStdDeviation());
+	}
+
+	@Test
+	public void testRealizationsInArray() {
+		checkRealizations(new NormalRandomVariable(2.0, 3.0));
+		checkRealizations(new ExponentialRandomVariable(0.5));
+	}
+
+	@Test
+	public void testReusedArray() {
+		NormalRandomVariable normal = new NormalRandomVariable(2.0, 3.0);
+		double[] realizations = normal.generate(1000);
+		Assert.assertEquals(1000, realizations.length);
+		double firstRealization = realizations[0];
+		Assert.assertSame(realizations, normal.generate(1000));
+		Assert.assertNotEquals(firstRealization, realizations[0], 0.0);
+		Assert.assertEquals(10, normal.generate(10).length);
+	}
+
+	@Test
+	public void testSampleMeanWithoutAllocations() {
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+		for (RandomVariableInterface randomVariable : new RandomVariableInterface[] {
+				new NormalRandomVariable(2.0, 3.0), new ExponentialRandomVariable(0.5) }) {
+			randomVariable.getSampleMean(1000);// the array is allocated here
+			long allocatedBytesBefore = threadBean.getThreadAllocatedBytes(threadId);
+			double sum = 0;
+			for (int i = 0; i < 1000; i++) {
+				sum += randomVariable.getSampleMean(1000);
+			}
+			long allocatedBytes = threadBean.getThreadAllocatedBytes(threadId) - allocatedBytesBefore;
+			// an array of 1000 doubles would already take 8000 bytes
+			Assert.assertTrue("allocated bytes: " + allocatedBytes + ", " + sum, allocatedBytes < 8000);
+		}
+	}
+}
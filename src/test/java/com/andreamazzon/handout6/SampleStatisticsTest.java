@@ -0,0 +1,92 @@
+package com.andreamazzon.handout6;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import com.andreamazzon.usefulmethodsmatricesandvectors.OnlineStatistics;
+
+/**
+ * This class tests the method getSampleStatistics of RandomVariableAbstract: for a sequence of
+ * realizations which is known in advance, whose length is not a multiple of the number of realizations
+ * generated together, the statistics must be the exact ones; for a normal and an exponential random
+ * variable, the mean and the standard deviation of the sample must be close to the analytic ones.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class SampleStatisticsTest {
+
+	/*
+	 * A "random variable" whose realizations are 0, 1, 2,...: only generate() is used by
+	 * getSampleStatistics.
+	 */
+	private static class CountingVariable extends RandomVariableAbstract {
+
+		private double nextRealization;
+
+		@Override
+		public double generate() {
+			return nextRealization++;
+		}
+
+		@Override
+		public double getAnalyticMean() {
+			return Double.NaN;
+		}
+
+		@Override
+		public double getAnalyticStdDeviation() {
+			return Double.NaN;
+		}
+
+		@Override
+		public double getCumulativeDistributionFunction(double x) {
+			return Double.NaN;
+		}
+
+		@Override
+		public double getDensityFunction(double x) {
+			return Double.NaN;
+		}
+
+		@Override
+		public double getQuantileFunction(double x) {
+			return Double.NaN;
+		}
+	}
+
+	@Test
+	public void testKnownRealizations() {
+		long numberOfRealizations = 2500;
+		OnlineStatistics statistics = new CountingVariable().getSampleStatistics(numberOfRealizations);
+		Assert.assertEquals(numberOfRealizations, statistics.getNumberOfValues());
+		// the average of 0,...,n-1 is (n-1)/2, and the sample variance is n(n+1)/12
+		Assert.assertEquals((numberOfRealizations - 1) / 2.0, statistics.getAverage(), 1E-12);
+		Assert.assertEquals(numberOfRealizations * (numberOfRealizations + 1) / 12.0, statistics.getVariance(),
+				1E-8);
+		Assert.assertEquals(statistics.getStandardDeviation() / Math.sqrt(numberOfRealizations),
+				statistics.getStandardError(), 0.0);
+		Assert.assertEquals(0.0, statistics.getMin(), 0.0);
+		Assert.assertEquals(numberOfRealizations - 1, statistics.getMax(), 0.0);
+
+		Assert.assertEquals(0, new CountingVariable().getSampleStatistics(0).getNumberOfValues());
+		Assert.assertThrows(IllegalArgumentException.class, () -> new CountingVariable().getSampleStatistics(-1));
+	}
+
+	private void checkStatistics(RandomVariableInterface randomVariable) {
+		long numberOfRealizations = 1_000_000;
+		OnlineStatistics statistics = randomVariable.getSampleStatistics(numberOfRealizations);
+		Assert.assertEquals(numberOfRealizations, statistics.getNumberOfValues());
+		// five standard errors
+		Assert.assertEquals(randomVariable.getAnalyticMean(), statistics.getAverage(),
+				5 * statistics.getStandardError());
+		Assert.assertEquals(randomVariable.getAnalyticStdDeviation(), statistics.getStandardDeviation(),
+				0.01 * randomVariable.getAnalyticStdDeviation());
+	}
+
+	@Test
+	public void testStatisticsOfSample() {
+		checkStatistics(new NormalRandomVariable(2.0, 3.0));
+		checkStatistics(new ExponentialRandomVariable(0.5));
+	}
+}
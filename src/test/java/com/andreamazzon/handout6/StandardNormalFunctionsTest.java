@@ -0,0 +1,164 @@
+package com.andreamazzon.handout6;
+
+import java.util.SplittableRandom;
+
+import org.apache.commons.math3.special.Erf;
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import net.finmath.functions.NormalDistribution;
+
+/**
+ * This class tests the approximations of the quantile function, of the cumulative distribution function
+ * and of the error function given by StandardNormalFunctions: against known values and the
+ * implementations of the finmath library and of Apache Commons Math, and checking that the values
+ * computed for an array of points are the same as the ones computed point by point. It also checks the
+ * error of the approximation of Abramowitz and Stegun.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class StandardNormalFunctionsTest {
+
+	private double[] getRandomProbabilities(int numberOfPoints) {
+		SplittableRandom randomGenerator = new SplittableRandom(1897);
+		double[] probabilities = new double[numberOfPoints];
+		for (int i = 0; i < numberOfPoints; i++) {
+			// uniform points, and points in the far tails
+			probabilities[i] = i % 10 == 0 ? Math.pow(10, -300 * randomGenerator.nextDouble())
+					: randomGenerator.nextDouble();
+		}
+		return probabilities;
+	}
+
+	@Test
+	public void testKnownValues() {
+		Assert.assertEquals(0.0, StandardNormalFunctions.getQuantile(0.5), 0.0);
+		Assert.assertEquals(1.959963984540054, StandardNormalFunctions.getQuantile(0.975), 1E-15);
+		Assert.assertEquals(-2.5758293035489004, StandardNormalFunctions.getQuantile(0.005), 1E-15);
+		Assert.assertEquals(-6.361340902404056, StandardNormalFunctions.getQuantile(1E-10), 1E-14);
+		Assert.assertEquals(Double.NEGATIVE_INFINITY, StandardNormalFunctions.getQuantile(0), 0.0);
+		Assert.assertEquals(Double.POSITIVE_INFINITY, StandardNormalFunctions.getQuantile(1), 0.0);
+		Assert.assertTrue(Double.isNaN(StandardNormalFunctions.getQuantile(1.5)));
+		Assert.assertTrue(Double.isNaN(StandardNormalFunctions.getQuantile(Double.NaN)));
+	}
+
+	@Test
+	public void testAgainstFinmath() {
+		for (double p : getRandomProbabilities(100000)) {
+			double quantile = StandardNormalFunctions.getQuantile(p);
+			Assert.assertEquals(NormalDistribution.inverseCumulativeNormalDistributionWichura(p), quantile,
+					1E-14 * Math.max(1, Math.abs(quantile)));
+			// symmetry with respect to 0.5, where 1 - p is not rounded too much
+			if (p > 1E-3 && p < 1 - 1E-3) {
+				Assert.assertEquals(-quantile, StandardNormalFunctions.getQuantile(1 - p), 1E-12);
+			}
+		}
+	}
+
+	@Test
+	public void testArrayOfPoints() {
+		// not a multiple of the number of points of a block
+		double[] probabilities = getRandomProbabilities(1003);
+		probabilities[17] = 0;
+		probabilities[18] = 1;
+		probabilities[19] = 0.5 + 0.425;
+		double[] quantiles = new double[probabilities.length];
+		StandardNormalFunctions.getQuantiles(probabilities, quantiles);
+		for (int i = 0; i < probabilities.length; i++) {
+			Assert.assertEquals(StandardNormalFunctions.getQuantile(probabilities[i]), quantiles[i], 0.0);
+		}
+		// the same array for the points and the values
+		StandardNormalFunctions.getQuantiles(probabilities, probabilities);
+		Assert.assertArrayEquals(quantiles, probabilities, 0.0);
+	}
+
+	@Test
+	public void testAbramowitzStegun() {
+		for (double p = 0.0001; p < 1; p += 0.0001) {
+			Assert.assertEquals(StandardNormalFunctions.getQuantile(p),
+					StandardNormalFunctions.getQuantileAbramowitzStegun(p), 4.5E-4);
+		}
+	}
+
+	@Test
+	public void testQuantileOfNormalRandomVariable() {
+		NormalRandomVariable normal = new NormalRandomVariable(1.0, 2.0);
+		double[] probabilities = getRandomProbabilities(1000);
+		double[] quantiles = new double[probabilities.length];
+		normal.getQuantileFunction(probabilities, quantiles);
+		for (int i = 0; i < probabilities.length; i++) {
+			Assert.assertEquals(normal.getQuantileFunction(probabilities[i]), quantiles[i], 0.0);
+		}
+	}
+
+	@Test
+	public void testErrorFunction() {
+		Assert.assertEquals(0.0, StandardNormalFunctions.getErrorFunction(0), 0.0);
+		Assert.assertEquals(1.0, StandardNormalFunctions.getErrorFunction(Double.POSITIVE_INFINITY), 0.0);
+		Assert.assertEquals(2.0, StandardNormalFunctions.getComplementaryErrorFunction(Double.NEGATIVE_INFINITY), 0.0);
+		Assert.assertTrue(Double.isNaN(StandardNormalFunctions.getErrorFunction(Double.NaN)));
+		// all the regions of the approximation, and the tail where erfc is smaller than 1e-300
+		for (double x = -6; x <= 26; x += 0.001) {
+			double errorFunction = StandardNormalFunctions.getErrorFunction(x);
+			double complementaryErrorFunction = StandardNormalFunctions.getComplementaryErrorFunction(x);
+			Assert.assertEquals(Erf.erf(x), errorFunction, 1E-14 * Math.abs(errorFunction) + Double.MIN_VALUE);
+			// a relative error of one unit in the last place is amplified by about 2x^2 by erfc
+			Assert.assertEquals(Erf.erfc(x), complementaryErrorFunction,
+					1E-15 * (4 + 2 * x * x) * complementaryErrorFunction);
+			Assert.assertEquals(-errorFunction, StandardNormalFunctions.getErrorFunction(-x), 0.0);
+		}
+	}
+
+	@Test
+	public void testCumulativeDistribution() {
+		// Phi(-20) = 2.7536241186062336e-89
+		Assert.assertEquals(2.7536241186062336E-89, StandardNormalFunctions.getCumulativeDistribution(-20),
+				1E-13 * 2.7536241186062336E-89);
+		for (double x = -8; x <= 8; x += 0.001) {
+			double cumulativeDistribution = StandardNormalFunctions.getCumulativeDistribution(x);
+			Assert.assertEquals(NormalDistribution.cumulativeDistribution(x), cumulativeDistribution,
+					1E-13 * cumulativeDistribution);
+		}
+		// it is the inverse of the quantile function, up to errors amplified by about x^2 in the tails
+		for (double p : getRandomProbabilities(10000)) {
+			double quantile = StandardNormalFunctions.getQuantile(p);
+			double cumulativeDistribution = StandardNormalFunctions.getCumulativeDistribution(quantile);
+			Assert.assertEquals(p, cumulativeDistribution, 1E-15 * (10 + quantile * quantile) * p);
+		}
+	}
+
+	@Test
+	public void testCumulativeDistributionOfNormalRandomVariable() {
+		NormalRandomVariable normal = new NormalRandomVariable(1.0, 2.0);
+		double[] points = new double[1001];
+		for (int i = 0; i < points.length; i++) {
+			points[i] = -20 + 0.04 * i;
+		}
+		double[] cumulativeDistributions = new double[points.length];
+		normal.getCumulativeDistributionFunction(points, cumulativeDistributions);
+		for (int i = 0; i < points.length; i++) {
+			Assert.assertEquals(normal.getCumulativeDistributionFunction(points[i]), cumulativeDistributions[i], 0.0);
+			Assert.assertEquals(NormalDistribution.cumulativeDistribution((points[i] - 1.0) / 2.0),
+					cumulativeDistributions[i], 1E-13 * cumulativeDistributions[i]);
+		}
+	}
+
+	@Test
+	public void testCumulativeDistributionInLongerArray() {
+		double[] points = { 0.0 };
+		// the entries after the first one must not be modified
+		double[] cumulativeDistributions = { -1, 5, 7 };
+		new NormalRandomVariable(0.0, 1.0).getCumulativeDistributionFunction(points, cumulativeDistributions);
+		Assert.assertArrayEquals(new double[] { 0.5, 5, 7 }, cumulativeDistributions, 0.0);
+
+		cumulativeDistributions = new double[] { -1, 5, 7 };
+		new com.andreamazzon.handout7.randomvariables.NormalRandomVariable(0.0, 1.0)
+				.getCumulativeDistributionFunction(points, cumulativeDistributions);
+		Assert.assertArrayEquals(new double[] { 0.5, 5, 7 }, cumulativeDistributions, 0.0);
+
+		cumulativeDistributions = new double[] { -1, 5, 7 };
+		StandardNormalFunctions.getCumulativeDistributions(points, cumulativeDistributions);
+		Assert.assertArrayEquals(new double[] { 0.5, 5, 7 }, cumulativeDistributions, 0.0);
+	}
+}
@@ -0,0 +1,144 @@
+package com.andreamazzon.handout6;
+
+import java.util.SplittableRandom;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import com.andreamazzon.usefulmethodsmatricesandvectors.OnlineStatistics;
+
+/**
+ * This class tests TabulatedQuantileRandomVariable: the error |F(Q(p)) - p| of the tabulated quantile
+ * function Q must be smaller than the tolerance in random points, also in the tails, Q must be
+ * increasing, and the realizations generated from the table must have the right mean and standard
+ * deviation. Apart from normal and exponential random variables, it is tested for a mixture of two
+ * normal random variables, whose quantile function has no closed form and is computed by bisection.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class TabulatedQuantileRandomVariableTest {
+
+	/*
+	 * With probability 0.3 a normal random variable with mean -2 and standard deviation 0.5, and with
+	 * probability 0.7 a normal random variable with mean 1 and standard deviation 1.
+	 */
+	private static class MixtureOfNormalVariables extends RandomVariableAbstract {
+
+		private final NormalRandomVariable first = new NormalRandomVariable(-2.0, 0.5);
+		private final NormalRandomVariable second = new NormalRandomVariable(1.0, 1.0);
+		private final double weight = 0.3;
+
+		@Override
+		public double getAnalyticMean() {
+			return weight * first.getAnalyticMean() + (1 - weight) * second.getAnalyticMean();
+		}
+
+		@Override
+		public double getAnalyticStdDeviation() {
+			double secondMoment = weight * (0.25 + 4) + (1 - weight) * (1 + 1);
+			return Math.sqrt(secondMoment - getAnalyticMean() * getAnalyticMean());
+		}
+
+		@Override
+		public double getCumulativeDistributionFunction(double x) {
+			return weight * first.getCumulativeDistributionFunction(x)
+					+ (1 - weight) * second.getCumulativeDistributionFunction(x);
+		}
+
+		@Override
+		public double getDensityFunction(double x) {
+			return weight * first.getDensityFunction(x) + (1 - weight) * second.getDensityFunction(x);
+		}
+
+		// by bisection, since the quantile function has no closed form
+		@Override
+		public double getQuantileFunction(double p) {
+			double left = -50;
+			double right = 50;
+			for (int i = 0; i < 200; i++) {
+				double middle = 0.5 * (left + right);
+				if (getCumulativeDistributionFunction(middle) < p) {
+					left = middle;
+				} else {
+					right = middle;
+				}
+			}
+			return 0.5 * (left + right);
+		}
+	}
+
+	private void checkErrorOfTable(RandomVariableInterface randomVariable, double tolerance) {
+		TabulatedQuantileRandomVariable tabulatedVariable = new TabulatedQuantileRandomVariable(randomVariable,
+				tolerance);
+		Assert.assertTrue(tabulatedVariable.getMaximumCheckedError() <= tolerance);
+
+		SplittableRandom randomGenerator = new SplittableRandom(1897);
+		for (int i = 0; i < 200000; i++) {
+			// uniform points, and points in the tails, also outside the table
+			double p = i % 10 == 0 ? Math.pow(10, -14 * randomGenerator.nextDouble()) : randomGenerator.nextDouble();
+			p = i % 20 == 0 ? 1 - p : p;
+			double quantile = tabulatedVariable.getQuantileFunction(p);
+			Assert.assertEquals(p, randomVariable.getCumulativeDistributionFunction(quantile), 1.01 * tolerance);
+		}
+
+		// it is increasing
+		double previousQuantile = Double.NEGATIVE_INFINITY;
+		for (double p = 1E-6; p < 1; p += 1E-6) {
+			double quantile = tabulatedVariable.getQuantileFunction(p);
+			Assert.assertTrue(quantile >= previousQuantile);
+			previousQuantile = quantile;
+		}
+	}
+
+	@Test
+	public void testErrorOfTable() {
+		for (double tolerance : new double[] { 1E-6, 1E-10, 1E-12 }) {
+			checkErrorOfTable(new NormalRandomVariable(2.0, 3.0), tolerance);
+			checkErrorOfTable(new ExponentialRandomVariable(0.5), tolerance);
+			checkErrorOfTable(new MixtureOfNormalVariables(), tolerance);
+		}
+	}
+
+	@Test
+	public void testTails() {
+		NormalRandomVariable normal = new NormalRandomVariable(2.0, 3.0);
+		TabulatedQuantileRandomVariable tabulatedNormal = new TabulatedQuantileRandomVariable(normal);
+		// outside the table, the quantile function of the wrapped random variable is called
+		Assert.assertEquals(normal.getQuantileFunction(1E-13), tabulatedNormal.getQuantileFunction(1E-13), 0.0);
+		Assert.assertEquals(Double.NEGATIVE_INFINITY, tabulatedNormal.getQuantileFunction(0), 0.0);
+		Assert.assertEquals(Double.POSITIVE_INFINITY, tabulatedNormal.getQuantileFunction(1), 0.0);
+		// the initial grid of 32 intervals has been refined
+		Assert.assertTrue(tabulatedNormal.getNumberOfIntervals() > 32);
+	}
+
+	@Test
+	public void testRealizations() {
+		MixtureOfNormalVariables mixture = new MixtureOfNormalVariables();
+		TabulatedQuantileRandomVariable tabulatedMixture = new TabulatedQuantileRandomVariable(mixture);
+		tabulatedMixture.setUniformRandomGenerator(new SplittableRandom(1897));
+		OnlineStatistics statistics = tabulatedMixture.getSampleStatistics(1_000_000);
+		// five standard errors
+		Assert.assertEquals(mixture.getAnalyticMean(), statistics.getAverage(), 5 * statistics.getStandardError());
+		Assert.assertEquals(mixture.getAnalyticStdDeviation(), statistics.getStandardDeviation(),
+				0.01 * mixture.getAnalyticStdDeviation());
+
+		// the same as the wrapped random variable, up to the error of the table in probability
+		tabulatedMixture.setUniformRandomGenerator(new SplittableRandom(3));
+		mixture.setUniformRandomGenerator(new SplittableRandom(3));
+		for (int i = 0; i < 1000; i++) {
+			Assert.assertEquals(mixture.getCumulativeDistributionFunction(mixture.generate()),
+					mixture.getCumulativeDistributionFunction(tabulatedMixture.generate()),
+					1.01 * tabulatedMixture.getTolerance());
+		}
+	}
+
+	@Test
+	public void testWrongTolerance() {
+		Assert.assertThrows(IllegalArgumentException.class,
+				() -> new TabulatedQuantileRandomVariable(new NormalRandomVariable(0.0, 1.0), 0));
+		// too small for the precision of the cumulative distribution function: it cannot be attained
+		Assert.assertThrows(IllegalStateException.class,
+				() -> new TabulatedQuantileRandomVariable(new NormalRandomVariable(0.0, 1.0), 1E-17));
+	}
+}
@@ -0,0 +1,103 @@
+package com.andreamazzon.handout6;
+
+import java.util.SplittableRandom;
+import java.util.function.LongFunction;
+import java.util.random.RandomGenerator;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import com.andreamazzon.handout2.AdjustedLinearCongruentialGenerator;
+import com.andreamazzon.handout2.AdjustedLinearCongruentialRandomGenerator;
+import com.andreamazzon.handout4.MersenneTwisterRandomGenerator;
+import com.andreamazzon.handout5.HaltonSequenceInBlocks;
+import com.andreamazzon.handout5.QuasiRandomSequenceRandomGenerator;
+import com.andreamazzon.handout5.SobolSequenceInBlocks;
+
+/**
+ * This class tests the generation of the realizations of NormalRandomVariable and
+ * ExponentialRandomVariable from uniform realizations given by a generator set by
+ * setUniformRandomGenerator: the realizations must be the quantiles of the uniform ones, the same
+ * seed must give the same realizations, and the points of a low discrepancy sequence must give a
+ * sample mean much closer to the analytic one than pseudo random numbers. It also tests the
+ * generators wrapping AdjustedLinearCongruentialGenerator and the low discrepancy sequences.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class UniformRandomGeneratorTest {
+
+	private final int numberOfRealizations = 4096;
+
+	private void checkSameRealizations(RandomVariableAbstract randomVariable,
+			LongFunction<RandomGenerator> randomGeneratorFactory) {
+		randomVariable.setUniformRandomGenerator(randomGeneratorFactory.apply(1897));
+		double[] realizations = new double[numberOfRealizations];
+		randomVariable.generate(realizations, 0, numberOfRealizations);
+		double realization = randomVariable.generate();
+
+		// the realizations are the quantiles of the uniform realizations
+		RandomGenerator uniformRandomGenerator = randomGeneratorFactory.apply(1897);
+		for (int i = 0; i < numberOfRealizations; i++) {
+			Assert.assertEquals(randomVariable.getQuantileFunction(uniformRandomGenerator.nextDouble()),
+					realizations[i], 0.0);
+		}
+		Assert.assertEquals(randomVariable.getQuantileFunction(uniformRandomGenerator.nextDouble()), realization,
+				0.0);
+
+		// the same seed gives the same realizations
+		randomVariable.setUniformRandomGenerator(randomGeneratorFactory.apply(1897));
+		Assert.assertArrayEquals(realizations, randomVariable.generate(numberOfRealizations).clone(), 0.0);
+
+		// Math.random() again
+		randomVariable.setUniformRandomGenerator(null);
+		Assert.assertNotEquals(realizations[0], randomVariable.generate(numberOfRealizations)[0], 0.0);
+	}
+
+	@Test
+	public void testSameRealizationsForSameSeed() {
+		for (RandomVariableAbstract randomVariable : new RandomVariableAbstract[] {
+				new NormalRandomVariable(2.0, 3.0), new ExponentialRandomVariable(0.5) }) {
+			checkSameRealizations(randomVariable, SplittableRandom::new);
+			checkSameRealizations(randomVariable, MersenneTwisterRandomGenerator::new);
+			checkSameRealizations(randomVariable, AdjustedLinearCongruentialRandomGenerator::new);
+		}
+	}
+
+	@Test
+	public void testLinearCongruentialRandomGenerator() {
+		AdjustedLinearCongruentialGenerator linearCongruentialGenerator = new AdjustedLinearCongruentialGenerator(1897);
+		double[] numbers = new double[3000];// not a multiple of the length of a block
+		linearCongruentialGenerator.getNextDoubles(numbers, 0, numbers.length);
+		RandomGenerator randomGenerator = new AdjustedLinearCongruentialRandomGenerator(1897);
+		for (double number : numbers) {
+			Assert.assertEquals(number, randomGenerator.nextDouble(), 0.0);
+		}
+	}
+
+	@Test
+	public void testQuasiRandomSequenceRandomGenerator() {
+		// the points of the Sobol sequence in two dimensions, coordinate after coordinate
+		int numberOfPoints = 600;
+		double[] coordinates = new double[2 * numberOfPoints];
+		new SobolSequenceInBlocks(2).fillBlock(1, numberOfPoints, coordinates);
+		RandomGenerator randomGenerator = new QuasiRandomSequenceRandomGenerator(new SobolSequenceInBlocks(2), 1);
+		for (int i = 0; i < numberOfPoints; i++) {
+			Assert.assertEquals(coordinates[i], randomGenerator.nextDouble(), 0.0);
+			Assert.assertEquals(coordinates[numberOfPoints + i], randomGenerator.nextDouble(), 0.0);
+		}
+	}
+
+	@Test
+	public void testLowDiscrepancySequence() {
+		NormalRandomVariable normal = new NormalRandomVariable(2.0, 3.0);
+		double standardErrorOfMonteCarlo = 3.0 / Math.sqrt(numberOfRealizations);
+
+		normal.setUniformRandomGenerator(
+				new QuasiRandomSequenceRandomGenerator(new HaltonSequenceInBlocks(new int[] { 2 }), 0));
+		Assert.assertEquals(2.0, normal.getSampleMean(numberOfRealizations), standardErrorOfMonteCarlo / 10);
+
+		normal.setUniformRandomGenerator(new QuasiRandomSequenceRandomGenerator(new SobolSequenceInBlocks(1), 1));
+		Assert.assertEquals(2.0, normal.getSampleMean(numberOfRealizations), standardErrorOfMonteCarlo / 10);
+	}
+}
@@ -6,8 +6,8 @@ import java.util.concurrent.Callable;
 
 
 /**
- * In this class we test the precision and the efficiency of inversion sampling and acceptance
- * rejection to generate a pair of independent normal random variables with expectation mu and
+ * In this class we test the precision and the efficiency of inversion sampling, acceptance
+ * rejection, the Ziggurat method and the polar method to generate a pair of independent normal random variables with expectation mu and
  * standard deviation sigma.
  * The test is to compute the Monte-Carlo approximation of P(X_1<mu, X_2 <mu) where X_1, X_2 are
  * independent, normal random variables with expectation mu. For every method we compute and print
@@ -56,7 +56,7 @@ public class BivariateNormalTesting {
 	/**
 	 * It tests the precision and the efficiency of a selected method to generate a
 	 * pair of independent normal random variables with expectation mu and standard
-	 * deviation sigma. The method (inversion sampling, acceptance rejection) is selected by
+	 * deviation sigma. The method (inversion sampling, acceptance rejection, Ziggurat, polar) is selected by
 	 * means of a switch statement based on an enum type containing the names of the methods.
 	 * The test consists in computing the Monte-Carlo approximation of P(X_1<mu, X_2 <mu)
 	 * where X_1, X_2 are independent, normal random variables with expectation mu.
@@ -72,6 +72,9 @@ public class BivariateNormalTesting {
 	 *                    method Callable<double[]> functionToEvaluate
 	 */
 	public void lengthyTestMethod(NormalRandomVariable normalTestSampler, GenerationMethods method) throws Exception {
+		// the fields are used by all the methods: the sums of the previous ones must be forgotten
+		sumElapsedTime = 0;
+		sumError = 0;
 		/*
 		 * Expected value of the two normal random variables Z_1,Z_2 (they are independent and have
 		 * same distribution)
@@ -140,6 +143,67 @@ public class BivariateNormalTesting {
 				sumError += error;
 			}
 			break;
+
+		case ZIGGURAT:
+			System.out.println("Ziggurat");
+			/*
+			 * For every Monte-Carlo approximation, we compute the percentage error and the
+			 * time needed to do the computation. Then we compute the average.
+			 */
+			for (int i = 0; i < numberOfComputations; i++) {
+				
+				// We compute for how many generated pairs both the values are smaller than mu
+				double numberOfTimesBothSmallerThanMu = 0.0;
+				long lStartTime = System.currentTimeMillis();// time when the computations starts
+				for (int j = 0; j < numberOfDrawingsPerComputation; j++) {
+					if (normalTestSampler.generateZiggurat() < mu && normalTestSampler.generateZiggurat() < mu) {
+						numberOfTimesBothSmallerThanMu++;
+					}
+				}
+				/*
+				 * Number of generated pairs for which both the values are smaller then the mean
+				 * divided by the number of simulations: you expect the result to be close to 0.25
+				 */
+				double frequence = numberOfTimesBothSmallerThanMu / numberOfDrawingsPerComputation;
+				long lEndTime = System.currentTimeMillis();// time when the computation ends: it depends on the method.
+				double elapsedTime = lEndTime - lStartTime;
+				sumElapsedTime += elapsedTime;
+				double error = Math.abs(frequence - exactResult) / exactResult * 100;
+				sumError += error;
+			}
+			break;
+
+		case POLAR:
+			System.out.println("Polar");
+			/*
+			 * For every Monte-Carlo approximation, we compute the percentage error and the
+			 * time needed to do the computation. Then we compute the average. Here all the
+			 * pairs of a computation are generated together in one array.
+			 */
+			double[] generatedPairs = new double[2 * numberOfDrawingsPerComputation];
+			for (int i = 0; i < numberOfComputations; i++) {
+				
+				// We compute for how many generated pairs both the values are smaller than mu
+				double numberOfTimesBothSmallerThanMu = 0.0;
+				long lStartTime = System.currentTimeMillis();// time when the computations starts
+				normalTestSampler.generatePolar(generatedPairs);
+				for (int j = 0; j < numberOfDrawingsPerComputation; j++) {
+					if (generatedPairs[2 * j] < mu && generatedPairs[2 * j + 1] < mu) {
+						numberOfTimesBothSmallerThanMu++;
+					}
+				}
+				/*
+				 * Number of generated pairs for which both the values are smaller then the mean
+				 * divided by the number of simulations: you expect the result to be close to 0.25
+				 */
+				double frequence = numberOfTimesBothSmallerThanMu / numberOfDrawingsPerComputation;
+				long lEndTime = System.currentTimeMillis();// time when the computation ends: it depends on the method.
+				double elapsedTime = lEndTime - lStartTime;
+				sumElapsedTime += elapsedTime;
+				double error = Math.abs(frequence - exactResult) / exactResult * 100;
+				sumError += error;
+			}
+			break;
 		}
 
 		double averageElapsedTime = sumElapsedTime / numberOfComputations;
@@ -153,7 +217,7 @@ public class BivariateNormalTesting {
 	/**
 	 * It tests the precision and the efficiency of a selected method to generate a
 	 * pair of independent normal random variables with expectation mu and standard
-	 * deviation sigma. The method (inversion sampling, acceptance rejection) is selected by
+	 * deviation sigma. The method (inversion sampling, acceptance rejection, Ziggurat, polar) is selected by
 	 * means of a switch statement based on an enum type containing the names of the methods.
 	 * The test consists in computing the Monte-Carlo approximation of P(X_1<mu, X_2 <mu)
 	 * where X_1, X_2 are independent, normal random variables with expectation mu.
@@ -195,6 +259,19 @@ public class BivariateNormalTesting {
 			// we now say what must be returned by methodToGenerateThePair in this case
 			methodToGenerateThePair = () -> normalTestSampler.generateBivariateNormalAR();
 			break;
+
+		case ZIGGURAT:
+			System.out.println("Ziggurat");
+			// we now say what must be returned by methodToGenerateThePair in this case
+			methodToGenerateThePair = () -> new double[] { normalTestSampler.generateZiggurat(),
+					normalTestSampler.generateZiggurat() };
+			break;
+
+		case POLAR:
+			System.out.println("Polar");
+			// we now say what must be returned by methodToGenerateThePair in this case
+			methodToGenerateThePair = () -> normalTestSampler.generateBivariateNormalPolar();
+			break;
 		}
 
 		/* 
@@ -1,5 +1,5 @@
 package com.andreamazzon.handout7.randomvariables;
 
 public enum GenerationMethods {
-	INVERSIONSAMPLING, ACCEPTANCEREJECTION 
+	INVERSIONSAMPLING, ACCEPTANCEREJECTION, ZIGGURAT, POLAR
 }
@@ -0,0 +1,96 @@
+package com.andreamazzon.handout7.randomvariables;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+/**
+ * This class tests that the realizations generated by the Ziggurat method, by the polar method and by
+ * inversion sampling into an array by NormalRandomVariable have the right distribution: the values of
+ * the cumulative distribution function in the realizations must be uniformly distributed in (0,1),
+ * which is checked by a chi-square test with 100 classes, and the frequency of the tails beyond the
+ * base layer of the Ziggurat must be the right one. The realizations are random, but the thresholds are
+ * chosen such that the probability that a test fails for correct realizations is smaller than 1e-6.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class NormalGenerationMethodsTest {
+
+	private final int numberOfRealizations = 1_000_000;
+	private final int numberOfClasses = 100;
+
+	private final double mu = 2.0;
+	private final double sigma = 3.0;
+	private final NormalRandomVariable normal = new NormalRandomVariable(mu, sigma);
+
+	private void checkDistribution(double[] realizations) {
+		int[] numberOfRealizationsInClasses = new int[numberOfClasses];
+		int numberOfRealizationsInTheTails = 0;
+		for (double realization : realizations) {
+			double probability = normal.getCumulativeDistributionFunction(realization);
+			numberOfRealizationsInClasses[Math.min((int) (probability * numberOfClasses), numberOfClasses - 1)]++;
+			// beyond the right end of the base layer of the Ziggurat
+			numberOfRealizationsInTheTails += Math.abs(realization - mu) > 3.442619855899 * sigma ? 1 : 0;
+		}
+		double expectedNumberInClass = (double) realizations.length / numberOfClasses;
+		double chiSquare = 0;
+		for (int numberInClass : numberOfRealizationsInClasses) {
+			chiSquare += (numberInClass - expectedNumberInClass) * (numberInClass - expectedNumberInClass)
+					/ expectedNumberInClass;
+		}
+		// 99 degrees of freedom: the 1 - 1e-6 quantile is about 170
+		Assert.assertTrue("chi-square " + chiSquare, chiSquare < 170);
+
+		double probabilityOfTheTails = 2 * (1 - normal.getCumulativeDistributionFunction(mu + 3.442619855899 * sigma));
+		double expectedNumberInTheTails = probabilityOfTheTails * realizations.length;
+		// the number is approximately Poisson distributed: 5 standard deviations
+		Assert.assertEquals(expectedNumberInTheTails, numberOfRealizationsInTheTails,
+				5 * Math.sqrt(expectedNumberInTheTails));
+	}
+
+	@Test
+	public void testZiggurat() {
+		double[] realizations = new double[numberOfRealizations];
+		normal.generateZiggurat(realizations);
+		checkDistribution(realizations);
+
+		for (int i = 0; i < numberOfRealizations; i++) {
+			realizations[i] = normal.generateZiggurat();
+		}
+		checkDistribution(realizations);
+	}
+
+	@Test
+	public void testPolar() {
+		double[] realizations = new double[numberOfRealizations];
+		normal.generatePolar(realizations);
+		checkDistribution(realizations);
+
+		for (int i = 0; i < numberOfRealizations; i += 2) {
+			double[] pair = normal.generateBivariateNormalPolar();
+			realizations[i] = pair[0];
+			realizations[i + 1] = pair[1];
+		}
+		checkDistribution(realizations);
+
+		// odd length: the last element is filled as well
+		double[] oddNumberOfRealizations = new double[3];
+		normal.generatePolar(oddNumberOfRealizations);
+		Assert.assertNotEquals(0.0, oddNumberOfRealizations[2], 0.0);
+	}
+
+	@Test
+	public void testInversionSamplingInArray() {
+		double[] realizations = new double[numberOfRealizations];
+		normal.generate(realizations, 0, numberOfRealizations);
+		checkDistribution(realizations);
+
+		// also the realizations of a function are written in an array which is reused
+		Assert.assertEquals(0.5, normal.getSampleMean(numberOfRealizations, x -> x < mu ? 1 : 0), 0.005);
+		checkDistribution(normal.generate(numberOfRealizations));
+
+		// the statistics of the sample of the function, without storing the realizations
+		Assert.assertEquals(0.5, normal.getSampleStatistics(numberOfRealizations, x -> x < mu ? 1 : 0).getAverage(),
+				0.005);
+	}
+}
@@ -0,0 +1,105 @@
+package com.andreamazzon.handout7.randomvariables;
+
+import org.junit.Assert;
+import org.junit.jupiter.api.Test;
+
+import com.andreamazzon.usefulmethodsmatricesandvectors.OnlineStatistics;
+
+/**
+ * This class tests the computation of the statistics of a sample in parallel by
+ * getSampleStatisticsInParallel of RandomVariableAbstract: the results must be the same for the same
+ * seed whatever the number of threads, different for different seeds, and close to the analytic ones,
+ * both for NormalRandomVariable, which transforms the uniform realizations all together, and for a
+ * random variable which transforms them one by one.
+ *
+ * @author Andrea Mazzon
+ *
+ */
+public class ParallelSampleMeanTest {
+
+	// not a multiple of the number of realizations of a partition
+	private final long numberOfRealizations = 1_000_003;
+
+	// an exponential random variable with intensity 1, generated by the methods of RandomVariableAbstract
+	private static class ExponentialVariable extends RandomVariableAbstract {
+
+		@Override
+		public double getAnalyticMean() {
+			return 1.0;
+		}
+
+		@Override
+		public double getAnalyticStdDeviation() {
+			return 1.0;
+		}
+
+		@Override
+		public double getDensityFunction(double x) {
+			return x < 0 ? 0 : Math.exp(-x);
+		}
+
+		@Override
+		public double getCumulativeDistributionFunction(double x) {
+			return x < 0 ? 0 : 1 - Math.exp(-x);
+		}
+
+		@Override
+		public double getQuantileFunction(double x) {
+			return -Math.log(1 - x);
+		}
+	}
+
+	private void checkSampleStatistics(RandomVariableAbstract randomVariable) {
+		randomVariable.setNumberOfThreads(1);
+		OnlineStatistics statistics = randomVariable.getSampleStatisticsInParallel(numberOfRealizations, x -> x,
+				1897);
+		Assert.assertEquals(numberOfRealizations, statistics.getNumberOfValues());
+		// five standard errors
+		Assert.assertEquals(randomVariable.getAnalyticMean(), statistics.getAverage(),
+				5 * statistics.getStandardError());
+		Assert.assertEquals(randomVariable.getAnalyticStdDeviation(), statistics.getStandardDeviation(),
+				0.01 * randomVariable.getAnalyticStdDeviation());
+
+		// the same seed gives the same results, whatever the number of threads
+		for (int numberOfThreads : new int[] { 2, 4, 7 }) {
+			randomVariable.setNumberOfThreads(numberOfThreads);
+			OnlineStatistics statisticsInParallel = randomVariable.getSampleStatisticsInParallel(numberOfRealizations,
+					x -> x, 1897);
+			Assert.assertEquals(statistics.getNumberOfValues(), statisticsInParallel.getNumberOfValues());
+			Assert.assertEquals(statistics.getAverage(), statisticsInParallel.getAverage(), 0.0);
+			Assert.assertEquals(statistics.getStandardDeviation(), statisticsInParallel.getStandardDeviation(), 0.0);
+			Assert.assertEquals(statistics.getMax(), statisticsInParallel.getMax(), 0.0);
+		}
+		Assert.assertEquals(statistics.getAverage(),
+				randomVariable.getSampleMeanInParallel(numberOfRealizations, x -> x, 1897), 0.0);
+		Assert.assertNotEquals(statistics.getAverage(),
+				randomVariable.getSampleMeanInParallel(numberOfRealizations, x -> x, 1898), 0.0);
+	}
+
+	@Test
+	public void testNormalRandomVariable() {
+		NormalRandomVariable normal = new NormalRandomVariable(2.0, 3.0);
+		checkSampleStatistics(normal);
+		// P(X < mu) = 0.5
+		normal.setNumberOfThreads(4);
+		Assert.assertEquals(0.5, normal.getSampleMeanInParallel(numberOfRealizations, x -> x < 2.0 ? 1 : 0, 3),
+				0.005);
+	}
+
+	@Test
+	public void testRealizationsTransformedOneByOne() {
+		checkSampleStatistics(new ExponentialVariable());
+	}
+
+	@Test
+	public void testSmallSamples() {
+		NormalRandomVariable normal = new NormalRandomVariable(2.0, 3.0);
+		normal.setNumberOfThreads(4);
+		Assert.assertEquals(0, normal.getSampleStatisticsInParallel(0, x -> x, 1897).getNumberOfValues());
+		Assert.assertEquals(10, normal.getSampleStatisticsInParallel(10, x -> x, 1897).getNumberOfValues());
+		// a negative length of the sample
+		Assert.assertThrows(IllegalArgumentException.class, () -> normal.getSampleStatisticsInParallel(-1, x -> x, 1897));
+		Assert.assertThrows(IllegalArgumentException.class, () -> normal.getSampleStatistics(-1));
+		Assert.assertThrows(IllegalArgumentException.class, () -> normal.getSampleStatistics(-1, x -> x));
+	}
+}